@@ -0,0 +1,11 @@
+#!/bin/sh
+# Runs the benchmarks with the GC profiler and fails if one got slower or allocates more per frame than
+# baseline.csv. Arguments are passed to JMH, e.g. a benchmark name. Regenerate the baseline with
+#   java -jar target/benchmarks.jar -prof gc -rf csv -rff baseline.csv
+# on the machine the check runs on, since scores only compare on the same hardware.
+# Thresholds are set with e.g. SOS_OPTS="-Dsos.bench.threshold=20 -Dsos.bench.allocSlack=8", see BaselineCheck.
+set -e
+cd "$(dirname "$0")"
+[ -f target/benchmarks.jar ] || mvn -B -q package
+java -jar target/benchmarks.jar -prof gc -rf csv -rff target/results.csv "$@"
+java $SOS_OPTS -cp target/benchmarks.jar starofstars.BaselineCheck baseline.csv target/results.csv
@@ -0,0 +1,153 @@
+package starofstars;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h3>BaselineCheck class of Star of Stars project</h3>
+ * BaselineCheck compares a JMH run against the committed baseline (benchmarks/baseline.csv) and fails if a
+ * benchmark regressed. Both files are JMH CSV results of a run with <code>-prof gc</code>, see check-baseline.sh.
+ * <p>
+ * Two numbers are compared per benchmark: its score (ns/frame, or frames/s for throughput benchmarks) and
+ * gc.alloc.rate.norm, the bytes allocated per frame. A score regresses if it is more than sos.bench.threshold
+ * percent worse than the baseline and the two scores' error margins don't overlap, so noise alone doesn't fail the
+ * check. Allocations regress if they grow by more than that percentage plus sos.bench.allocSlack bytes, which keeps
+ * benchmarks that allocate nothing from failing on a stray byte. Benchmarks missing from either file never fail the
+ * check, so a run of a few benchmarks compares just those.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class BaselineCheck {
+    private static final String ALLOC = ":gc.alloc.rate.norm";
+
+    private final double threshold = Config.getInt("bench.threshold", 10) / 100.0;
+    private final int allocSlack = Config.getInt("bench.allocSlack", 8);
+
+    /**
+     * One row of a JMH CSV result
+     */
+    private static class Result {
+        boolean alloc;
+        String mode;
+        double score;
+        double error;
+        String unit;
+    }
+
+    /**
+     * Compares a results file against a baseline
+     * @param args Baseline CSV and results CSV
+     * @throws IOException if a file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BaselineCheck <baseline.csv> <results.csv>");
+            System.exit(2);
+        }
+        int regressions = new BaselineCheck().compare(read(Path.of(args[0])), read(Path.of(args[1])));
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed against " + args[0]);
+            System.exit(1);
+        }
+        System.out.println("No regressions against " + args[0]);
+    }
+
+    /**
+     * Prints every compared benchmark and counts the regressions
+     * @param baseline Baseline results by benchmark
+     * @param results New results by benchmark
+     * @return Amount of regressed numbers
+     */
+    private int compare(Map<String, Result> baseline, Map<String, Result> results) {
+        int regressions = 0;
+        int missing = 0;
+        for (Map.Entry<String, Result> entry : baseline.entrySet()) {
+            String name = entry.getKey();
+            Result before = entry.getValue();
+            Result after = results.get(name);
+            if (after == null) {
+                missing++;
+                continue;
+            }
+            boolean regressed = before.alloc ? allocRegressed(before, after) : scoreRegressed(before, after);
+            if (regressed) regressions++;
+            System.out.printf("%s %-80s %12.2f -> %12.2f %s%n", regressed ? "!" : " ", name, before.score, after.score, after.unit);
+        }
+        for (String name : results.keySet()) {
+            if (!baseline.containsKey(name)) System.out.printf("  %-80s not in baseline%n", name);
+        }
+        if (missing > 0) System.out.println("  " + missing + " baseline results not in this run");
+        return regressions;
+    }
+
+    private boolean allocRegressed(Result before, Result after) {
+        return after.score > before.score * (1 + threshold) + allocSlack;
+    }
+
+    private boolean scoreRegressed(Result before, Result after) {
+        //Throughput is better when higher, every other mode measures time per frame
+        boolean higherIsBetter = before.mode.equals("thrpt");
+        double worse = higherIsBetter ? before.score - after.score : after.score - before.score;
+        return worse > before.score * threshold && worse > before.error + after.error;
+    }
+
+    /**
+     * Reads the primary scores and allocation rates of a JMH CSV result, keyed by benchmark, mode and parameters
+     * @param path CSV file
+     * @return Results in file order
+     * @throws IOException if the file can't be read
+     */
+    private static Map<String, Result> read(Path path) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(path);
+        List<String> header = split(lines.get(0));
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> fields = split(line);
+            String benchmark = fields.get(0);
+            //Other secondary results, like the GC count, are too noisy to gate on
+            if (benchmark.contains(":") && !benchmark.endsWith(ALLOC)) continue;
+
+            StringBuilder name = new StringBuilder(benchmark.replace("starofstars.", ""));
+            for (int i = 7; i < fields.size(); i++) {
+                if (!fields.get(i).isEmpty()) name.append(' ').append(header.get(i).replace("Param: ", "")).append('=').append(fields.get(i));
+            }
+            Result result = new Result();
+            result.alloc = benchmark.endsWith(ALLOC);
+            result.mode = fields.get(1);
+            result.score = Double.parseDouble(fields.get(4));
+            result.error = fields.get(5).equals("NaN") ? 0 : Double.parseDouble(fields.get(5));
+            result.unit = fields.get(6);
+            results.put(name.toString(), result);
+        }
+        return results;
+    }
+
+    /**
+     * Splits a CSV line, removing the quotes JMH puts around every text field
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
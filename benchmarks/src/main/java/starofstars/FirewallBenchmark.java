@@ -0,0 +1,74 @@
+package starofstars;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h3>FirewallBenchmark class of Star of Stars project</h3>
+ * Measures the firewall check ArmSwitch and CoreSwitch run on every data frame they switch.
+ * Legacy range pairs hit the compiled bit matrix, wide pairs are matched against the rule list.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirewallBenchmark {
+    private static final int PAIRS = 1024;
+
+    @Param({"4", "64"})
+    public int rules;
+
+    @Param({"legacy", "wide"})
+    public String addresses;
+
+    private final Firewall firewall = new Firewall();
+    private final int[] src = new int[PAIRS];
+    private final int[] dst = new int[PAIRS];
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        int arms = addresses.equals("wide") ? 1000 : 15;
+        int nodes = addresses.equals("wide") ? 1000 : 16;
+
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < rules; i++) {
+            String dst = random.nextInt(arms) + "_" + (i % 4 == 0 ? "#" : String.valueOf(random.nextInt(nodes)));
+            switch (i % 3) {
+                case 0 -> file.append(dst).append(": local\n");
+                case 1 -> file.append(dst).append(": deny ").append(random.nextInt(arms)).append("_#\n");
+                default -> file.append(dst).append(": deny\n");
+            }
+        }
+        Path path = Files.createTempFile("firewall", ".txt");
+        Files.writeString(path, file);
+        firewall.load(path.toString());
+        Files.delete(path);
+
+        for (int i = 0; i < PAIRS; i++) {
+            src[i] = FrameView.address(random.nextInt(arms), random.nextInt(nodes));
+            dst[i] = FrameView.address(random.nextInt(arms), random.nextInt(nodes));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public int blocks() {
+        int blocked = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            if (firewall.blocks(src[i], dst[i])) blocked++;
+        }
+        return blocked;
+    }
+}
@@ -0,0 +1,147 @@
+package starofstars;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h3>ForwardingBenchmark class of Star of Stars project</h3>
+ * Measures frames per second through the whole switching path in one JVM: a node on arm 0 sends frames
+ * over a loopback socket, arm switch 0 forwards them to the core switch, the core to arm switch 1 and
+ * arm switch 1 to a node on arm 1. Both nodes are plain sockets driven by the benchmark thread,
+ * or MemoryLinkChannels with the memory transport.
+ * Switch console output is discarded, but still built.
+ * Switch queues drop frames when full, so receiving gives up after RECEIVE_TIMEOUT_MILLIS and fails the
+ * iteration rather than waiting forever for a frame that was dropped.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForwardingBenchmark {
+    private static final int BATCH = 64;
+    private static final int RECEIVE_TIMEOUT_MILLIS = 5000;
+
+    @Param({"socket", "nio", "memory"})
+    public String transport;
+
+    private Socket sender;
+    private Socket receiver;
+    private OutputStream senderOut;
+    private FrameReader receiverIn;
+    private MemoryLinkChannel memorySender;
+    private MemoryLinkChannel memoryReceiver;
+    private byte[] message;
+    private byte[] batch;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        System.setProperty("sos.transport", transport);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        new CoreSwitch();
+        Thread.sleep(200);
+        new ArmSwitch(0);
+        new ArmSwitch(1);
+        Thread.sleep(200);
+
+        if (transport.equals("memory")) {
+            memorySender = new MemoryTransport("Sender").connect("localhost", 1000);
+            memoryReceiver = new MemoryTransport("Receiver").connect("localhost", 1001);
+        } else {
+            sender = new Socket("localhost", 1000);
+            receiver = new Socket("localhost", 1001);
+            sender.setTcpNoDelay(true);
+            receiver.setSoTimeout(RECEIVE_TIMEOUT_MILLIS);
+            senderOut = sender.getOutputStream();
+            receiverIn = new FrameReader(receiver.getInputStream(), FrameBufferPool.shared());
+        }
+
+        //Let the switches learn both nodes: the receiver's frame is flooded, the sender's reply is unicast
+        send(false, Frame.encode(new Frame(1, 0, 111, 0, 0, "0_0:hello")));
+        Thread.sleep(200);
+        send(true, Frame.encode(new Frame(0, 0, 111, 0, 0, "1_0:hello")));
+        for (FrameBuffer frame = receive(); frame.src() != FrameView.address(0, 0); frame = receive()) {
+            frame.release();
+        }
+
+        message = Frame.encode(new Frame(0, 0, 111, 0, 0, "1_0:benchmark frame payload"));
+        batch = new byte[message.length * BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            System.arraycopy(message, 0, batch, i * message.length, message.length);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int forward() throws IOException {
+        if (memorySender != null) {
+            for (int i = 0; i < BATCH; i++) {
+                memorySender.write(FrameBufferPool.shared().copyOf(message));
+            }
+        } else {
+            senderOut.write(batch);
+        }
+        int bytes = 0;
+        for (int i = 0; i < BATCH; i++) {
+            FrameBuffer frame = receive();
+            bytes += frame.length();
+            frame.release();
+        }
+        return bytes;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        //End flags from every node shut the switches down and free their ports
+        send(true, Frame.encode(new Frame(0, 0, 123, "0_0:CLOSE")));
+        send(false, Frame.encode(new Frame(1, 0, 123, "1_0:CLOSE")));
+        Thread.sleep(500);
+        if (memorySender != null) {
+            memorySender.close();
+            memoryReceiver.close();
+        } else {
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    /**
+     * Sends one frame from either node
+     * @param fromSender true for the node on arm 0, false for the node on arm 1
+     * @param bytes Encoded frame
+     */
+    private void send(boolean fromSender, byte[] bytes) throws IOException {
+        if (memorySender != null) {
+            (fromSender ? memorySender : memoryReceiver).write(FrameBufferPool.shared().copyOf(bytes));
+        } else {
+            (fromSender ? sender : receiver).getOutputStream().write(bytes);
+        }
+    }
+
+    /**
+     * @return Next frame received by the node on arm 1, owned by the caller
+     * @throws IOException if no frame arrives within RECEIVE_TIMEOUT_MILLIS or the link closed
+     */
+    private FrameBuffer receive() throws IOException {
+        FrameBuffer frame;
+        try {
+            frame = memoryReceiver != null ? memoryReceiver.read(TimeUnit.MILLISECONDS.toNanos(RECEIVE_TIMEOUT_MILLIS)) : receiverIn.readFrame();
+        } catch (SocketTimeoutException e) {
+            frame = null;
+        }
+        if (frame == null) throw new IOException("Node on arm 1 received no frame within " + RECEIVE_TIMEOUT_MILLIS + " ms");
+        return frame;
+    }
+}
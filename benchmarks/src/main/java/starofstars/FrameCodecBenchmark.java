@@ -0,0 +1,69 @@
+package starofstars;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h3>FrameCodecBenchmark class of Star of Stars project</h3>
+ * Measures encoding and decoding one frame: the Frame object codec nodes use, the in-place FrameView
+ * encoder, and the CRC-32C check switches run on every frame they receive.
+ * Run with <code>-prof gc</code> to see the allocations per frame.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dsos.frame.version=1")
+public class FrameCodecBenchmark {
+    /**
+     * Header version the frame ends up with. The fork runs with sos.frame.version=1 so small frames still get a
+     * legacy header; arm 300 doesn't fit one, so it forces v2.
+     */
+    @Param({"legacy", "v2"})
+    public String header;
+
+    @Param({"16", "200"})
+    public int messageLength;
+
+    private final FrameView view = new FrameView();
+    private final byte[] out = new byte[FrameView.MAX_FRAME_LENGTH];
+    private String line;
+    private Frame frame;
+    private byte[] encoded;
+    private int src;
+
+    @Setup
+    public void setup() {
+        int dstArm = header.equals("v2") ? 300 : 1;
+        line = dstArm + "_2:" + "x".repeat(messageLength);
+        frame = new Frame(0, 1, 111, 7, 3, line);
+        encoded = Frame.encode(frame);
+        src = FrameView.address(0, 1);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return Frame.encode(frame);
+    }
+
+    @Benchmark
+    public Frame decode() {
+        return Frame.decode(encoded);
+    }
+
+    @Benchmark
+    public int encodeInPlace() {
+        return FrameView.encode(out, 0, src, 111, 7, 3, line);
+    }
+
+    @Benchmark
+    public boolean verifyCrc() {
+        return view.wrap(encoded).verifyCrc();
+    }
+}
@@ -0,0 +1,393 @@
+package starofstars;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h3>ArmSwitch class of Star of Stars project</h3>
+ * The ArmSwitch class routes local node traffic and forwards all other traffic to the core switch.
+ * It contains a copy of the core switch firewall to block/forward certain traffic.
+ * Frames from local nodes and frames from the core switch are switched by separate pipelines, so a burst
+ * on one side doesn't hold up the other. Both share the forwarding table and the firewall.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class ArmSwitch implements Runnable {
+    /**
+     * PARALLEL switches local and global frames on separate threads, WEIGHTED shares one thread
+     * that takes up to sos.arm.localWeight local frames, then up to sos.arm.globalWeight global frames per round
+     */
+    public enum Scheduling {PARALLEL, WEIGHTED}
+
+    public static final Scheduling SCHEDULING = Config.getEnum("arm.scheduling", Scheduling.PARALLEL);
+    public static final int LOCAL_WEIGHT = Math.max(1, Config.getInt("arm.localWeight", 1));
+    public static final int GLOBAL_WEIGHT = Math.max(1, Config.getInt("arm.globalWeight", 1));
+
+    private volatile boolean isRunning = true;
+    private volatile ClientLink[] clients = new ClientLink[0]; //Copy on write, replaced whenever a node connects
+    private final ForwardingTable<ClientLink> forwarding = new ForwardingTable<>(FrameView.MAX_NODE + 1); //By node ID
+    private int completedClients = 0;
+    private FrameQueue localBuffer;
+    private FrameQueue globalBuffer;
+
+    private final Firewall firewall = new Firewall();
+    private CCSLink link;
+    private final int switchID;
+    private final LinkTransport transport;
+    private final HopTimes hops;
+    private final SwitchMetrics metrics;
+
+    /**
+     * Creates new arm switch instance, connects to core switch, and listens for node connections
+     * @param switchID
+     */
+    public ArmSwitch(int switchID) {
+        this.localBuffer = new FrameQueue();
+        this.globalBuffer = new FrameQueue();
+        this.switchID = switchID;
+        this.hops = new HopTimes("Arm " + switchID);
+        this.metrics = new SwitchMetrics("Arm " + switchID);
+        metrics.addQueue(localBuffer);
+        metrics.addQueue(globalBuffer);
+        //With NIO all links of this switch share one selector thread, which also accepts new nodes
+        this.transport = Transport.configured().open("Cas " + this.switchID);
+        Log.info("Arm Switch {}: Connecting to central switch", this.switchID);
+        LinkChannel coreChannel = this.transport.connect("localhost", 5000);
+        this.transport.listen(1000 + this.switchID, channel -> addClient(new ClientLink(channel, this)));
+
+        link = new CCSLink(coreChannel, this);
+        if (SCHEDULING == Scheduling.PARALLEL) {
+            Threads.start(this::runLocal);
+            Threads.start(this::runGlobal);
+        } else {
+            Threads.start(this);
+        }
+    }
+
+    /**
+     * Weighted switching loop, split up into local routing and global routing sections on one thread
+     */
+    public void run() {
+        localBuffer.setConsumer(Thread.currentThread());
+        globalBuffer.setConsumer(Thread.currentThread());
+        while (isRunning) {
+            int switched = 0;
+            FrameBuffer frame;
+            for (int i = 0; i < LOCAL_WEIGHT && (frame = localBuffer.poll()) != null; i++, switched++) {
+                switchTimed(frame, true);
+            }
+            for (int i = 0; i < GLOBAL_WEIGHT && (frame = globalBuffer.poll()) != null; i++, switched++) {
+                switchTimed(frame, false);
+            }
+
+            //Both queues empty, park until a link thread offers a new frame
+            if (switched == 0) LockSupport.park(this);
+        }
+        releaseQueued();
+    }
+
+    /**
+     * Local switching loop, only handles frames from this arm's nodes
+     */
+    private void runLocal() {
+        localBuffer.setConsumer(Thread.currentThread());
+        while (isRunning) {
+            FrameBuffer frame = localBuffer.take();
+            if (frame != null) switchTimed(frame, true);
+        }
+        releaseQueued();
+    }
+
+    /**
+     * Global switching loop, only handles frames from the core switch
+     */
+    private void runGlobal() {
+        globalBuffer.setConsumer(Thread.currentThread());
+        while (isRunning) {
+            FrameBuffer frame = globalBuffer.take();
+            if (frame != null) switchTimed(frame, false);
+        }
+        releaseQueued();
+    }
+
+    /**
+     * Returns frames still queued at shutdown to the pool
+     */
+    private void releaseQueued() {
+        for (FrameBuffer frame = localBuffer.poll(); frame != null; frame = localBuffer.poll()) {
+            frame.release();
+        }
+        for (FrameBuffer frame = globalBuffer.poll(); frame != null; frame = globalBuffer.poll()) {
+            frame.release();
+        }
+    }
+
+    /**
+     * Routes a frame, recording its queue wait and switching time
+     * @param frame Formatted data frame
+     * @param local true for frames from this arm's nodes, false for frames from the core switch
+     */
+    private void switchTimed(FrameBuffer frame, boolean local) {
+        hops.record(HopTimes.Hop.QUEUE, frame.timestamp());
+        long start = HopTimes.now();
+        if (local) switchLocal(frame);
+        else switchGlobal(frame);
+        hops.record(HopTimes.Hop.SWITCHING, start);
+    }
+
+    /**
+     * Routes a frame received from a local node. Every branch either passes the frame on or releases it.
+     * @param frame Formatted data frame
+     */
+    private void switchLocal(FrameBuffer frame) {
+        //Only copied out of the pooled buffer when it will be logged
+        String data = Log.DEBUG ? getData(frame) : null;
+        Log.debug("Switch {} received message: \"{}\"", this.switchID, data);
+        //check if ack type denotes firewall table, if so load, otherwise process normally
+        if (frame.ack() == 5) {
+            this.firewall.load(frame);
+            frame.release();
+        //check if ack type denotes end signal, if so forward to core switch
+        } else if (frame.ack() == 123) {
+            if (++completedClients >= clients.length) {
+                Log.info("Switch {} sending end flag to core", this.switchID);
+                link.write(frame);
+            } else {
+                frame.release();
+            }
+        } else if (frame.dstArm() == this.switchID && !frame.isAck() && firewall.blocks(frame.src(), frame.dst())) {
+            //Traffic staying on this arm never passes the core, so local rules are checked here
+            metrics.firewalled();
+            frame = frame.unshared(); // rewritten below, so take a private copy if the sender still holds it
+            frame.toAck(0b00000010); // Makes destination the source, sets ack type to firewalled
+            frame.dropMessage(); // keeps only the sequence numbers to show it's an ack
+            frame.seal(); // CRC covers the header, so it is redone after every rewrite
+            ClientLink source = portOf(frame.dst());
+            if (source != null) source.write(frame);
+            else frame.release();
+        } else {
+            //if dest is known send there, else global/flood
+            ClientLink port = portOf(frame.dst());
+            if (port != null) {
+                Log.debug("Sending local frame to node");
+                metrics.unicast();
+                port.write(frame);
+            } else {
+                //if dest cas isnt this cas, send to global, else mark ack as flood, then send to global and flood
+                if (frame.dstArm() != this.switchID) {
+                    Log.debug("Switch {} sending local frame to global: \"{}\"", this.switchID, data);
+                    metrics.unicast();
+                    link.write(frame);
+                } else if (frame.isAck()) {
+                    //ACKs for nodes that haven't sent anything yet are flooded as they are, never ACKed themselves
+                    flood(frame);
+                } else {
+                    frame = frame.unshared();
+                    frame.setAck(0b00000100);
+                    frame.seal();
+                    //ack is built in its own buffer, the flooded frame can't change while links are sending it
+                    FrameBuffer ack = frame.copy();
+                    Log.debug("Switch {} flooding local frame: \"{}\"", this.switchID, data);
+                    flood(frame);
+
+                    ack.toAck(0b00000011);
+                    ack.seal();
+                    Log.debug("Switch {} sending ack from flooded frame to node {}", this.switchID, ack.dstNode());
+                    ClientLink source = portOf(ack.dst());
+                    if (source != null) source.write(ack);
+                    else ack.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Routes a frame received from the core switch. Every branch either passes the frame on or releases it.
+     * @param frame Formatted data frame
+     */
+    private void switchGlobal(FrameBuffer frame) {
+        int ackType = frame.ack();
+        int destSwitch = frame.dstArm();
+
+        if (ackType == 5) { //check if ack type denotes firewall table, if so load, otherwise process normally
+            this.firewall.load(frame);
+            frame.release();
+            Log.info("Firewall loaded");
+        } else if (ackType == 4) { //check if global is flooding
+            Log.debug("Switch {} flooding global frame", this.switchID);
+            this.flood(frame);
+        } else if (ackType == 123) { //Final end flag received from global. Forward to nodes then shut down
+            flood(frame);
+
+            Threads.delay(200);
+            this.isRunning = false;
+            localBuffer.wake();
+            closeLinks();
+            this.transport.closeServer();
+        } else if (ackType == 2) {
+            ClientLink source = portOf(frame.dst());
+            if (source != null) {
+                source.write(frame);
+            } else {
+                Log.error("CAS {}: Source node unknown, can't send ack. Something is wrong", this.switchID);
+                frame.release();
+            }
+        } else {
+            //ACKs answer traffic the node sent itself, so they pass the firewall
+            if (!frame.isAck() && firewall.blocks(frame.src(), frame.dst())) {
+                metrics.firewalled();
+                frame = frame.unshared();
+                frame.toAck(0b00000010); // Makes destination the source, sets ack type to firewalled
+                frame.dropMessage(); // keeps only the sequence numbers to show it's an ack
+                frame.seal();
+
+                link.write(frame); //send back up to core arm switch for redistribution
+            } else {
+                //if dest is known send there, else global/flood
+                ClientLink port = portOf(frame.dst());
+                if (port != null) {
+                    metrics.unicast();
+                    port.write(frame);
+                } else {
+                    //if dest switch is not this switch, send to global. Else, flood and send back ack.
+                    if (this.switchID != destSwitch) {
+                        metrics.unicast();
+                        link.write(frame);
+                    }
+                    else if (frame.isAck()) flood(frame);
+                    else {
+                        frame = frame.unshared();
+                        frame.setAck(0b00000100);
+                        frame.seal();
+                        FrameBuffer ack = frame.copy();
+                        flood(frame);
+
+                        ack.toAck(0b00000011);
+                        ack.seal();
+                        link.write(ack);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads in an incoming frame from a local node. Called by ClientLink instances
+     * @param frame packet
+     * @param client source node
+     */
+    public void incomingLocal(FrameBuffer frame, ClientLink client) {
+        long start = HopTimes.now();
+        //Checked on the link's thread, a corrupted frame can't be trusted to say where it came from or goes
+        if (FrameView.VERIFY_CRC && !frame.verifyCrc()) {
+            Log.warn("Switch {}: Dropping local frame with bad CRC", this.switchID);
+            metrics.crcDropped();
+            frame.release();
+            return;
+        }
+        if (forwarding.learn(frame.srcNode(), client)) {
+            Log.info("Switch {} registered new node, ID: {}", this.switchID, frame.srcNode());
+            client.getPort().setLabel("node " + this.switchID + "_" + frame.srcNode());
+        }
+        metrics.ack(frame.ack());
+
+        hops.record(HopTimes.Hop.INGRESS, start);
+        localBuffer.offer(frame);
+    }
+
+    /**
+     * Finds the port of a node on this arm
+     * @param address Node address
+     * @return Port the node was last seen on, or null if it is unknown or on another arm
+     */
+    private ClientLink portOf(int address) {
+        return FrameView.armOf(address) == this.switchID ? forwarding.lookup(FrameView.nodeOf(address)) : null;
+    }
+
+    /**
+     * Reads in an incoming frame from the core switch. Called by CCSLink
+     * @param frame packet
+     */
+    public void incomingGlobal(FrameBuffer frame) {
+        long start = HopTimes.now();
+        if (FrameView.VERIFY_CRC && !frame.verifyCrc()) {
+            Log.warn("Switch {}: Dropping global frame with bad CRC", this.switchID);
+            metrics.crcDropped();
+            frame.release();
+            return;
+        }
+        metrics.ack(frame.ack());
+        hops.record(HopTimes.Hop.INGRESS, start);
+        globalBuffer.offer(frame);
+    }
+
+    /**
+     * Get running state of core switch
+     * @return true if running, false otherwise
+     */
+    public boolean isRunning() {
+        return this.isRunning;
+    }
+
+    /**
+     * @return Counters of this switch
+     */
+    public SwitchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return Time spent in each hop of this switch
+     */
+    public HopTimes getHopTimes() {
+        return hops;
+    }
+
+    /**
+     * Adds a new node connection to the list of ports. Its address is learned from the first frame it sends.
+     * The port array is copied rather than changed, so switching threads read it without locking.
+     * @param client Instance of ClientLink connected to respective node
+     */
+    public synchronized void addClient(ClientLink client) {
+        ClientLink[] grown = Arrays.copyOf(clients, clients.length + 1);
+        grown[clients.length] = client;
+        clients = grown;
+    }
+
+    /**
+     * Floods given frame to all connected nodes. The links get their references to the same buffer
+     * in one step, then each hands it to its own egress, and the caller's reference is released.
+     * @param frame Formatted data frame
+     */
+    private void flood(FrameBuffer frame){
+        metrics.flooded();
+        ClientLink[] ports = clients;
+        frame.retain(ports.length);
+        for (ClientLink client : ports) {
+            client.write(frame);
+        }
+        frame.release();
+    }
+
+    /**
+     * Closes all node links and the core switch link so their listener threads stop blocking on reads
+     */
+    private void closeLinks() {
+        for (ClientLink client : clients) {
+            client.close();
+        }
+        link.close();
+    }
+
+    /**
+     * Gets data section of frame for debugging purposes
+     * @param frame Formatted data frame
+     * @return Message component of frame as a string
+     */
+    private static String getData(FrameBuffer frame) {
+        return new String(frame.array(), frame.dataOffset(), frame.size(), StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,75 @@
+package starofstars;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <h3>BufferedSink class of Star of Stars project</h3>
+ * BufferedSink encodes lines into an in-memory buffer and writes the buffer to its file when it fills up
+ * or GroupCommit flushes it. Characters are copied into the buffer as ISO-8859-1 bytes, the encoding frames
+ * carry them in, so the file holds exactly the bytes that were sent whatever the platform charset.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class BufferedSink implements OutputSink {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileOutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ReentrantLock lock = new ReentrantLock();
+    private int buffered = 0;
+
+    /**
+     * Creates the file and registers the sink for group commits
+     * @param path Output file path
+     * @throws IOException if the file can't be created
+     */
+    public BufferedSink(String path) throws IOException {
+        this.out = new FileOutputStream(path);
+        if (GroupCommit.FLUSH_MILLIS > 0) GroupCommit.register(this);
+    }
+
+    public void write(CharSequence line) throws IOException {
+        lock.lock();
+        try {
+            int length = line.length();
+            for (int i = 0; i < length; i++) {
+                if (buffered == buffer.length) writeBuffer();
+                buffer[buffered++] = FrameView.latin1(line.charAt(i));
+            }
+            if (buffered == buffer.length) writeBuffer();
+            buffer[buffered++] = '\n';
+        } finally {
+            lock.unlock();
+        }
+        if (GroupCommit.FLUSH_MILLIS == 0) flush();
+    }
+
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            if (buffered == 0) return;
+            writeBuffer();
+            if (GroupCommit.FSYNC) out.getFD().sync();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() throws IOException {
+        GroupCommit.unregister(this);
+        flush();
+        out.close();
+    }
+
+    /**
+     * Hands the buffer to the OS. Caller must hold the lock.
+     */
+    private void writeBuffer() throws IOException {
+        out.write(buffer, 0, buffered);
+        buffered = 0;
+    }
+}
@@ -0,0 +1,67 @@
+package starofstars;
+
+/**
+ * <h3>CASLink class of Star of Stars project</h3>
+ * CASLink functions identically to ClientLink, but connects to Arm Switches instead of nodes.
+ *
+ * @see ClientLink
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class CASLink implements LinkChannel.Receiver {
+    private final LinkChannel channel;
+    private final CoreSwitch coreSwitch;
+    private final SwitchMetrics.Port port;
+
+    /**
+     * Creates a new link to attach to an arm switch connection
+     * @param channel Linked arm switch channel
+     * @param coreSwitch Reference to switch
+     */
+    public CASLink(LinkChannel channel, CoreSwitch coreSwitch) {
+        this.channel = channel;
+        this.coreSwitch = coreSwitch;
+        this.port = coreSwitch.getMetrics().addPort("arm");
+        channel.start(this);
+    }
+
+    /**
+     * Passes a frame read from the channel on to the switch
+     * @param frame Formatted data frame
+     */
+    public void receive(FrameBuffer frame) {
+        port.in();
+        coreSwitch.incomingFrame(frame, this);
+    }
+
+    /**
+     * Writes given frame to the channel, passing on the caller's reference
+     * @param frame Frame to send
+     */
+    public void write(FrameBuffer frame) {
+        port.out();
+        channel.write(frame);
+    }
+
+    /**
+     * Closes the channel, ending the listener loop
+     */
+    public void close() {
+        channel.close();
+    }
+
+    /**
+     * @return Egress histogram of the switch, or null if timing is disabled
+     */
+    public LatencyHistogram egressTimes() {
+        return coreSwitch.getHopTimes().get(HopTimes.Hop.EGRESS);
+    }
+
+    /**
+     * @return Frame counters of this port
+     */
+    public SwitchMetrics.Port getPort() {
+        return port;
+    }
+}
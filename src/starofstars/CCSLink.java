@@ -0,0 +1,67 @@
+package starofstars;
+
+/**
+ * <h3>CCSLink class of Star of Stars project</h3>
+ * CCSLink functions identically to ClientLink, but connects to the main switch instead of nodes.
+ *
+ * @see ClientLink
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class CCSLink implements LinkChannel.Receiver {
+    private final LinkChannel channel;
+    private final ArmSwitch armSwitch;
+    private final SwitchMetrics.Port port;
+
+    /**
+     * Creates a new link to attach to a core switch connection
+     * @param channel Linked core switch channel
+     * @param armSwitch Reference to switch
+     */
+    public CCSLink(LinkChannel channel, ArmSwitch armSwitch) {
+        this.channel = channel;
+        this.armSwitch = armSwitch;
+        this.port = armSwitch.getMetrics().addPort("core");
+        channel.start(this);
+    }
+
+    /**
+     * Passes a frame read from the channel on to the switch
+     * @param frame Formatted data frame
+     */
+    public void receive(FrameBuffer frame) {
+        port.in();
+        armSwitch.incomingGlobal(frame);
+    }
+
+    /**
+     * Writes given frame to the channel, passing on the caller's reference
+     * @param frame Frame to send
+     */
+    public void write(FrameBuffer frame) {
+        port.out();
+        channel.write(frame);
+    }
+
+    /**
+     * Closes the channel, ending the listener loop
+     */
+    public void close() {
+        channel.close();
+    }
+
+    /**
+     * @return Egress histogram of the switch, or null if timing is disabled
+     */
+    public LatencyHistogram egressTimes() {
+        return armSwitch.getHopTimes().get(HopTimes.Hop.EGRESS);
+    }
+
+    /**
+     * @return Frame counters of this port
+     */
+    public SwitchMetrics.Port getPort() {
+        return port;
+    }
+}
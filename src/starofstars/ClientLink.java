@@ -0,0 +1,69 @@
+package starofstars;
+
+/**
+ * <h3>ClientLink class of Star of Stars project</h3>
+ * ClientLink objects store the link channel to their respective node.
+ * Each node has a ClientLink object created by its arm switch that receives packets from the channel
+ * and sends them to the switch's frame buffer, and is used by the switch to send
+ * packets back to its node.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class ClientLink implements LinkChannel.Receiver {
+    private final LinkChannel channel;
+    private final ArmSwitch armSwitch;
+    private final SwitchMetrics.Port port;
+
+    /**
+     * Creates a new client link to attach to a node connection
+     * @param channel Linked client channel
+     * @param armSwitch Reference to switch
+     */
+    public ClientLink(LinkChannel channel, ArmSwitch armSwitch) {
+        this.channel = channel;
+        this.armSwitch = armSwitch;
+        this.port = armSwitch.getMetrics().addPort("node");
+        channel.start(this);
+    }
+
+    /**
+     * Passes a frame read from the channel on to the switch
+     * @param frame Formatted data frame
+     */
+    public void receive(FrameBuffer frame) {
+        port.in();
+        armSwitch.incomingLocal(frame, this);
+    }
+
+    /**
+     * Writes given frame to the channel, passing on the caller's reference
+     * @param frame Frame to send
+     */
+    public void write(FrameBuffer frame) {
+        port.out();
+        channel.write(frame);
+    }
+
+    /**
+     * Closes the channel, ending the listener loop
+     */
+    public void close() {
+        channel.close();
+    }
+
+    /**
+     * @return Egress histogram of the switch, or null if timing is disabled
+     */
+    public LatencyHistogram egressTimes() {
+        return armSwitch.getHopTimes().get(HopTimes.Hop.EGRESS);
+    }
+
+    /**
+     * @return Frame counters of this port
+     */
+    public SwitchMetrics.Port getPort() {
+        return port;
+    }
+}
@@ -0,0 +1,88 @@
+package starofstars;
+
+/**
+ * <h3>Config class of Star of Stars project</h3>
+ * Config reads tuning options for switches and nodes from JVM system properties.
+ * Every option is looked up as "sos." + name, e.g. <code>-Dsos.queue.capacity=4096</code>,
+ * and falls back to the given default if it is missing or malformed.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public final class Config {
+    private static final String PREFIX = "sos.";
+
+    private Config() {
+    }
+
+    /**
+     * Gets a string option
+     * @param name Option name without "sos." prefix
+     * @param def Default value
+     * @return Option value, or default if unset
+     */
+    public static String getString(String name, String def) {
+        String value = System.getProperty(PREFIX + name);
+        return value == null || value.isBlank() ? def : value.trim();
+    }
+
+    /**
+     * Gets an integer option
+     * @param name Option name without "sos." prefix
+     * @param def Default value
+     * @return Option value, or default if unset or not a number
+     */
+    public static int getInt(String name, int def) {
+        try {
+            return Integer.parseInt(getString(name, String.valueOf(def)));
+        } catch (NumberFormatException e) {
+            System.out.println("Config: Invalid number for " + PREFIX + name + ", using " + def);
+            return def;
+        }
+    }
+
+    /**
+     * Gets a long option
+     * @param name Option name without "sos." prefix
+     * @param def Default value
+     * @return Option value, or default if unset or not a number
+     */
+    public static long getLong(String name, long def) {
+        try {
+            return Long.parseLong(getString(name, String.valueOf(def)));
+        } catch (NumberFormatException e) {
+            System.out.println("Config: Invalid number for " + PREFIX + name + ", using " + def);
+            return def;
+        }
+    }
+
+    /**
+     * Gets a boolean option, "true" or "false" ignoring case
+     * @param name Option name without "sos." prefix
+     * @param def Default value
+     * @return Option value, or default if unset or not a boolean
+     */
+    public static boolean getBoolean(String name, boolean def) {
+        String value = getString(name, String.valueOf(def));
+        if (value.equalsIgnoreCase("true")) return true;
+        if (value.equalsIgnoreCase("false")) return false;
+        System.out.println("Config: Invalid value for " + PREFIX + name + ", using " + def);
+        return def;
+    }
+
+    /**
+     * Gets an enum option, matched case-insensitively against the constant names
+     * @param name Option name without "sos." prefix
+     * @param def Default value
+     * @return Option value, or default if unset or not a valid constant
+     */
+    public static <E extends Enum<E>> E getEnum(String name, E def) {
+        String value = getString(name, def.name());
+        for (E constant : def.getDeclaringClass().getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value.replace('-', '_'))) return constant;
+        }
+        System.out.println("Config: Invalid value for " + PREFIX + name + ", using " + def.name().toLowerCase());
+        return def;
+    }
+}
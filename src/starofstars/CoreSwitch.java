@@ -0,0 +1,307 @@
+package starofstars;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h3>CoreSwitch class of Star of Stars project</h3>
+ * The core switch routes traffic between switches and loads/distributes a predefined firewall table.
+ * Switching is split over sos.core.shards worker threads, each with its own ingress queue.
+ * Frames are assigned to a shard by destination arm, so per-flow ordering is kept.
+ * End flags are counted on the first shard. Before it floods the last one, it fences the other shards:
+ * each gets a reference to the end flag behind the frames it already holds, and the first shard waits
+ * until all of them reached it, so nothing queued before the end is dropped at shutdown.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ */
+public class CoreSwitch implements Runnable {
+    private volatile boolean isRunning = true;
+    private volatile CASLink[] switches = new CASLink[0]; //Copy on write, replaced whenever an arm switch connects
+    private final ForwardingTable<CASLink> forwarding = new ForwardingTable<>(FrameView.MAX_ARM + 1); //By arm ID
+    private final AtomicInteger completedSwitches = new AtomicInteger();
+    private final FrameQueue[] shards;
+    private final CountDownLatch shardsDrained;
+    private final Firewall firewall = new Firewall();
+    private List<byte[]> firewallFrames;
+    private final LinkTransport transport;
+    private final HopTimes hops = new HopTimes("Core");
+    private final SwitchMetrics metrics = new SwitchMetrics("Core");
+
+    /**
+     * Creates a new core switch and loads firewall table. Listens for new arm switch connections
+     */
+    public CoreSwitch() {
+        //More shards than cores only add threads
+        int shardCount = Math.max(1, Math.min(16, Config.getInt("core.shards", Runtime.getRuntime().availableProcessors())));
+        this.shards = new FrameQueue[shardCount];
+        this.shardsDrained = new CountDownLatch(shardCount - 1);
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new FrameQueue();
+            metrics.addQueue(this.shards[i]);
+        }
+
+        loadFirewall();
+
+        //With NIO all arm switch links share one selector thread, which also accepts new arm switches
+        this.transport = Transport.configured().open("Core switch");
+        this.transport.listen(5000, channel -> addSwitch(new CASLink(channel, this)));
+        Threads.start(this); //Reminder: for the love of god, stop forgetting to include this line
+        for (int i = 1; i < shardCount; i++) {
+            FrameQueue shard = this.shards[i];
+            Threads.start(() -> drain(shard));
+        }
+    }
+
+    /**
+     * Switching loop of the first shard, which also handles end flags
+     */
+    public void run() {
+        drain(shards[0]);
+    }
+
+    /**
+     * Switching loop of one shard. Each shard only gets frames for its own destination arms, so frames
+     * of one flow are always switched by the same thread in the order they arrived.
+     * @param shard Ingress queue of the shard
+     */
+    private void drain(FrameQueue shard) {
+        shard.setConsumer(Thread.currentThread());
+        while (isRunning) {
+            FrameBuffer frame = shard.take();
+            if (frame == null) continue;
+            //End flags only reach the other shards as fences, everything queued before it has been switched
+            if (frame.ack() == 123 && shard != shards[0]) {
+                frame.release();
+                shardsDrained.countDown();
+                continue;
+            }
+            hops.record(HopTimes.Hop.QUEUE, frame.timestamp());
+            long start = HopTimes.now();
+            switchFrame(frame);
+            hops.record(HopTimes.Hop.SWITCHING, start);
+        }
+        //Frames still queued at shutdown go back to the pool
+        for (FrameBuffer frame = shard.poll(); frame != null; frame = shard.poll()) {
+            frame.release();
+        }
+    }
+
+    /**
+     * Routes a frame received from an arm switch. Every branch either passes the frame on or releases it.
+     * @param frame Formatted data frame
+     */
+    private void switchFrame(FrameBuffer frame) {
+        if (Log.DEBUG) Log.debug("Core received frame: \"{}\"", getData(frame));
+        int dest = frame.dstArm();
+        //If ack type is end signal, check if all other switches have sent end signal, if so, flood end signal back to all nodes
+        if (frame.ack() == 123) {
+            if (completedSwitches.incrementAndGet() >= switches.length) {
+                Log.info("Core sending end signal");
+                fenceShards(frame);
+                flood(frame);
+
+                //Gives the links time to send the end flag before they are closed
+                Threads.delay(200);
+                this.isRunning = false;
+                for (FrameQueue shard : shards) {
+                    shard.wake();
+                }
+                closeLinks();
+                this.transport.closeServer();
+            } else {
+                frame.release();
+            }
+        } else if (frame.ack() == 2) {
+            CASLink source = forwarding.lookup(dest);
+            if (source != null) {
+                source.write(frame);
+            } else {
+                Log.error("Core: Source switch unknown, can't send firewalled ack. Something is wrong");
+                frame.release();
+            }
+        } else {
+            //firewall check, ACKs answer traffic the node sent itself so they pass
+            if (!frame.isAck() && firewall.blocks(frame.src(), frame.dst())) {
+                metrics.firewalled();
+                frame = frame.unshared(); // over memory links the sending node may still hold this buffer
+                frame.toAck(0b00000010); // Makes destination the source, sets ack type to firewalled
+                frame.dropMessage(); // keeps only the sequence numbers to show it's an ack
+                frame.seal(); // CRC covers the header, so it is redone after every rewrite
+
+                CASLink source = forwarding.lookup(frame.dstArm());
+                if (source != null) {
+                    Log.debug("Global frame firewalled, sending back");
+                    source.write(frame);
+                } else {
+                    Log.error("Core: Arm switch source unknown. How did this even happen");
+                    frame.release();
+                }
+            } else {
+                CASLink port = forwarding.lookup(dest);
+                if (port != null) {
+                    Log.debug("Core sending frame to arm");
+                    metrics.unicast();
+                    port.write(frame);
+                } else if (frame.isAck()) {
+                    //ACKs are flooded as they are, never ACKed themselves
+                    Log.debug("Core flooding ack");
+                    flood(frame);
+                } else {
+                    frame = frame.unshared();
+                    frame.setAck(0b00000100); // sets ack type to no return needed
+                    frame.seal();
+                    //ack is built in its own buffer, the flooded frame can't change while links are sending it
+                    FrameBuffer ack = frame.copy();
+                    Log.debug("Core flooding frame");
+                    flood(frame);
+
+                    //Send ack back to src
+                    ack.toAck(0b00000011);
+                    ack.seal();
+                    CASLink source = forwarding.lookup(ack.dstArm());
+                    if (source != null) {
+                        Log.debug("Core sending ack back from flooded frame to switch {}", ack.dstArm());
+                        source.write(ack);
+                    } else {
+                        Log.error("Core: Source switch unknown, can't send ack. Something is wrong");
+                        ack.release();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues the end flag on every other shard and waits until each of them has switched
+     * the frames queued in front of it
+     * @param frame Final end flag, still owned by the caller
+     */
+    private void fenceShards(FrameBuffer frame) {
+        for (int i = 1; i < shards.length; i++) {
+            shards[i].offer(frame.retain());
+        }
+        try {
+            shardsDrained.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get running state of core switch
+     * @return true if running, false otherwise
+     */
+    public boolean isRunning() {
+        return this.isRunning;
+    }
+
+    /**
+     * Reads in an incoming frame from an arm switch. Called by CASLink instances
+     * @param frame packet
+     * @param armLink source arm switch
+     */
+    public void incomingFrame(FrameBuffer frame, CASLink armLink) {
+        long start = HopTimes.now();
+        //Checked on the link's thread, a corrupted frame can't be trusted to say where it came from or goes
+        if (FrameView.VERIFY_CRC && !frame.verifyCrc()) {
+            Log.warn("Core: Dropping frame with bad CRC");
+            metrics.crcDropped();
+            frame.release();
+            return;
+        }
+
+        //ACKs built by arm switches keep the source of the frame they answer, so only learn from the rest
+        if (!frame.isAck() && forwarding.learn(frame.srcArm(), armLink)) {
+            Log.info("Core registered new switch, ID: {}", frame.srcArm());
+            armLink.getPort().setLabel("arm " + frame.srcArm());
+        }
+        metrics.ack(frame.ack());
+
+        //End flags are counted on the first shard, everything else is spread by destination arm
+        int shard = frame.ack() == 123 ? 0 : frame.dstArm() % shards.length;
+        hops.record(HopTimes.Hop.INGRESS, start);
+        shards[shard].offer(frame);
+    }
+
+    /**
+     * @return Counters of this switch
+     */
+    public SwitchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return Time spent in each hop of this switch
+     */
+    public HopTimes getHopTimes() {
+        return hops;
+    }
+
+    /**
+     * Adds a new arm switch connection to the list of ports and sends firewall table to switch.
+     * Its ID is learned from the first frame it forwards.
+     * @param armSwitch Instance of CASLink connected to respective arm switch
+     */
+    public void addSwitch(CASLink armSwitch) {
+        synchronized (this) {
+            CASLink[] grown = Arrays.copyOf(switches, switches.length + 1);
+            grown[switches.length] = armSwitch;
+            switches = grown;
+        }
+        for (byte[] firewallFrame : firewallFrames) {
+            armSwitch.write(FrameBufferPool.shared().copyOf(firewallFrame));
+        }
+    }
+
+    /**
+     * Reads in "firewall.txt", compiles the rules and encodes them into firewall frames.
+     * The core switch checks every transit frame against the rules, and the frames are sent to
+     * all new arm switches on connection so they can check traffic that doesn't pass the core.
+     */
+    private void loadFirewall() {
+        try {
+            firewall.load("firewall.txt");
+        } catch (IOException e) {
+            Log.error("Firewall read error.");
+        }
+        firewallFrames = firewall.toFrames();
+    }
+
+    /**
+     * Floods given frame to all connected arm switches. The links get their references to the same buffer
+     * in one step, then each hands it to its own egress, and the caller's reference is released.
+     * @param frame Formatted data frame
+     */
+    private void flood(FrameBuffer frame){
+        metrics.flooded();
+        CASLink[] ports = switches;
+        frame.retain(ports.length);
+        for (CASLink armSwitch : ports) {
+            armSwitch.write(frame);
+        }
+        frame.release();
+    }
+
+    /**
+     * Closes all arm switch links so their listener threads stop blocking on reads
+     */
+    private void closeLinks() {
+        for (CASLink armSwitch : switches) {
+            armSwitch.close();
+        }
+    }
+
+    /**
+     * Gets data section of frame for debugging purposes
+     * @param frame Formatted data frame
+     * @return Message component of frame as a string
+     */
+    private static String getData(FrameBuffer frame) {
+        return new String(frame.array(), frame.dataOffset(), frame.size(), StandardCharsets.ISO_8859_1);
+    }
+}
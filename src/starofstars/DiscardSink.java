@@ -0,0 +1,25 @@
+package starofstars;
+
+/**
+ * <h3>DiscardSink class of Star of Stars project</h3>
+ * DiscardSink drops every line and creates no file, for benchmarks that shouldn't measure the disk.
+ * It only counts the lines, and reports the count at debug level when closed.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class DiscardSink implements OutputSink {
+    private long lines = 0;
+
+    public void write(CharSequence line) {
+        lines++;
+    }
+
+    public void flush() {
+    }
+
+    public void close() {
+        Log.debug("DiscardSink: Discarded {} lines", lines);
+    }
+}
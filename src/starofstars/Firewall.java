@@ -0,0 +1,240 @@
+package starofstars;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * <h3>Firewall class of Star of Stars project</h3>
+ * Firewall holds the compiled firewall table shared by the core switch and the arm switches.
+ * Every (source, destination) pair of legacy range addresses (arms and nodes 0-15) has one bit in a
+ * 256 x 256 bit matrix, so checking a frame is a single array lookup with no branching, boxing or allocation.
+ * Pairs involving wider addresses are checked against the rules themselves, newest first.
+ * New rules are compiled into a copy of the matrix which is then published, so switching threads
+ * can keep checking frames while another thread loads rules.
+ * <p>
+ * Rules are read from "firewall.txt" by the core switch, one per line, and applied in order so later rules win:
+ * <pre>
+ * x_y: local       only nodes on arm x may reach node x_y
+ * x_#: local       only nodes on arm x may reach arm x
+ * x_y: deny        nobody may reach x_y
+ * x_y: deny a_b    a_b may not reach x_y (a_# for every node on arm a)
+ * x_y: allow a_b   a_b may reach x_y again (a_# for every node on arm a)
+ * </pre>
+ * The core switch sends the rules to each arm switch in firewall frames (ACK type 5),
+ * nine bytes per rule: [FLAGS][DST ARM 2][DST NODE 2][SRC ARM 2][SRC NODE 2].
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class Firewall {
+    //Rule flags
+    private static final int ALLOW = 1;
+    private static final int DST_ARM = 2;
+    private static final int SRC_ARM = 4;
+    private static final int SRC_ANY = 8;
+    private static final int SRC_OTHER_ARMS = 16;
+
+    private static final int RULE_LENGTH = 9;
+    private static final int RULES_PER_FRAME = FrameView.V2_MAX_DATA_LENGTH / RULE_LENGTH;
+
+    private volatile long[] blocked = new long[256 * 256 / 64];
+    //[FLAGS][DST][SRC] per rule, in the order they were loaded
+    private volatile int[] rules = new int[0];
+
+    /**
+     * Checks if traffic between two nodes is blocked
+     * @param src Source address
+     * @param dst Destination address
+     * @return true if the frame must be firewalled
+     */
+    public boolean blocks(int src, int dst) {
+        int s = matrixIndex(src);
+        int d = matrixIndex(dst);
+        if ((s | d) < 0) return scan(src, dst);
+        return (blocked[(s << 2) | (d >>> 6)] >>> d & 1L) != 0;
+    }
+
+    /**
+     * Reads and compiles the rules in given file. Invalid lines are skipped.
+     * @param path Firewall file, usually "firewall.txt"
+     * @throws IOException if the file can't be read
+     */
+    public void load(String path) throws IOException {
+        Table next = new Table();
+        Scanner fileReader = new Scanner(new File(path));
+        while (fileReader.hasNextLine()) {
+            String line = fileReader.nextLine().trim();
+            if (line.isEmpty()) continue;
+            try {
+                parseRule(next, line);
+            } catch (RuntimeException e) {
+                Log.warn("Firewall: Ignoring invalid rule \"{}\"", line);
+            }
+        }
+        fileReader.close();
+        next.publish();
+    }
+
+    /**
+     * Compiles the rules carried by a firewall frame (ACK type 5) sent by the core switch
+     * @param frame Firewall frame
+     */
+    public void load(FrameView frame) {
+        Table next = new Table();
+        for (int i = 0; i + RULE_LENGTH <= frame.size(); i += RULE_LENGTH) {
+            next.add(frame.data(i) & 0xFF, readAddress(frame, i + 1), readAddress(frame, i + 5));
+        }
+        next.publish();
+    }
+
+    /**
+     * Encodes every rule into firewall frames for the arm switches
+     * @return Encoded frames, at least one even if there are no rules
+     */
+    public List<byte[]> toFrames() {
+        int[] rules = this.rules;
+        int ruleCount = rules.length / 3;
+        List<byte[]> frames = new ArrayList<>();
+        int rule = 0;
+        do {
+            int count = Math.min(RULES_PER_FRAME, ruleCount - rule);
+            byte[] data = new byte[count * RULE_LENGTH];
+            for (int i = 0; i < count; i++, rule++) {
+                data[i * RULE_LENGTH] = (byte) rules[rule * 3];
+                writeAddress(data, i * RULE_LENGTH + 1, rules[rule * 3 + 1]);
+                writeAddress(data, i * RULE_LENGTH + 5, rules[rule * 3 + 2]);
+            }
+            byte[] frame = new byte[FrameView.V2_HEADER_LENGTH + data.length];
+            int length = FrameView.encode(frame, 0, 0, 0, 5, data, 0, data.length);
+            frames.add(Arrays.copyOf(frame, length));
+        } while (rule < ruleCount);
+        return frames;
+    }
+
+    /**
+     * Parses one "destination: rule" line
+     */
+    private void parseRule(Table table, String line) {
+        String[] parts = line.split(":", 2);
+        String[] rule = parts[1].trim().split("\\s+");
+        int flags = 0;
+        int dst = parseAddress(parts[0].trim());
+        if (isWholeArm(parts[0].trim())) flags |= DST_ARM;
+
+        int src = 0;
+        String kind = rule[0].toLowerCase();
+        if (kind.equals("local")) {
+            flags |= SRC_OTHER_ARMS;
+        } else if (kind.equals("deny") || kind.equals("allow")) {
+            if (kind.equals("allow")) flags |= ALLOW;
+            if (rule.length < 2) {
+                flags |= SRC_ANY;
+            } else {
+                src = parseAddress(rule[1]);
+                if (isWholeArm(rule[1])) flags |= SRC_ARM;
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown rule " + kind);
+        }
+        table.add(flags, dst, src);
+    }
+
+    /**
+     * Checks a pair outside the matrix against every rule, newest first since later rules win
+     */
+    private boolean scan(int src, int dst) {
+        int[] rules = this.rules;
+        for (int i = rules.length - 3; i >= 0; i -= 3) {
+            if (matches(rules[i], rules[i + 1], rules[i + 2], src, dst)) return (rules[i] & ALLOW) == 0;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a rule applies to traffic from src to dst
+     */
+    private static boolean matches(int flags, int ruleDst, int ruleSrc, int src, int dst) {
+        boolean dstMatch = (flags & DST_ARM) != 0 ? FrameView.armOf(dst) == FrameView.armOf(ruleDst) : dst == ruleDst;
+        if (!dstMatch) return false;
+        if ((flags & SRC_ANY) != 0) return true;
+        if ((flags & SRC_OTHER_ARMS) != 0) return FrameView.armOf(src) != FrameView.armOf(ruleDst);
+        if ((flags & SRC_ARM) != 0) return FrameView.armOf(src) == FrameView.armOf(ruleSrc);
+        return src == ruleSrc;
+    }
+
+    /**
+     * @return Index of an address in the matrix, or -1 if it is outside of it
+     */
+    private static int matrixIndex(int address) {
+        int arm = FrameView.armOf(address);
+        int node = FrameView.nodeOf(address);
+        return arm < 16 && node < 16 ? arm << 4 | node : -1;
+    }
+
+    /**
+     * Parses "x_y" or "x_#" into an address, using node 0 for whole arms
+     */
+    private static int parseAddress(String address) {
+        String[] ids = address.split("_");
+        int arm = Integer.parseInt(ids[0]);
+        int node = isWholeArm(address) ? 0 : Integer.parseInt(ids[1]);
+        if (arm < 0 || arm > FrameView.MAX_ARM || node < 0 || node > FrameView.MAX_NODE) throw new IllegalArgumentException("Address out of range " + address);
+        return FrameView.address(arm, node);
+    }
+
+    private static boolean isWholeArm(String address) {
+        return address.endsWith("_#");
+    }
+
+    private static int readAddress(FrameView frame, int index) {
+        return (frame.data(index) & 0xFF) << 24 | (frame.data(index + 1) & 0xFF) << 16 | (frame.data(index + 2) & 0xFF) << 8 | frame.data(index + 3) & 0xFF;
+    }
+
+    private static void writeAddress(byte[] data, int index, int address) {
+        data[index] = (byte) (address >>> 24);
+        data[index + 1] = (byte) (address >>> 16);
+        data[index + 2] = (byte) (address >>> 8);
+        data[index + 3] = (byte) address;
+    }
+
+    /**
+     * Copy of the matrix and rule list that new rules are compiled into before they are published
+     */
+    private class Table {
+        private final long[] matrix = blocked.clone();
+        private int[] compiled = Arrays.copyOf(rules, Math.max(48, rules.length * 2));
+        private int length = rules.length;
+
+        /**
+         * Records a rule and applies it to the matrix
+         */
+        void add(int flags, int dst, int src) {
+            if (length == compiled.length) compiled = Arrays.copyOf(compiled, length * 2);
+            compiled[length++] = flags;
+            compiled[length++] = dst;
+            compiled[length++] = src;
+
+            for (int s = 0; s < 256; s++) {
+                for (int d = 0; d < 256; d++) {
+                    if (!matches(flags, dst, src, FrameView.address(s >> 4, s & 15), FrameView.address(d >> 4, d & 15))) continue;
+                    int bit = s << 8 | d;
+                    if ((flags & ALLOW) != 0) matrix[bit >>> 6] &= ~(1L << bit);
+                    else matrix[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+
+        /**
+         * Makes the compiled rules visible to switching threads
+         */
+        void publish() {
+            rules = Arrays.copyOf(compiled, length);
+            blocked = matrix;
+        }
+    }
+}
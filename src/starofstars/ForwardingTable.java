@@ -0,0 +1,88 @@
+package starofstars;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <h3>ForwardingTable class of Star of Stars project</h3>
+ * ForwardingTable maps addresses a switch has learned to the port (link) they were last seen on.
+ * It is indexed directly by address, so lookups are two lock-free array reads. The table is split into
+ * pages of 256 addresses that are only allocated once an address in them is learned, so a table covering
+ * every 16 bit node or arm ID stays small when just a few of them are in use.
+ * Entries expire if no frame from that address arrived for sos.fdb.ageMillis, after which
+ * traffic to the address is flooded again until it is learned anew.
+ *
+ * @param <T> Port type, e.g. ClientLink or CASLink
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class ForwardingTable<T> {
+    public static final long DEFAULT_AGE_MILLIS = Config.getLong("fdb.ageMillis", 300_000);
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final AtomicReferenceArray<Page<T>> pages;
+    private final long ageNanos;
+
+    /**
+     * Creates a table for addresses 0 to size - 1 with the age configured by sos.fdb.ageMillis
+     * @param size Amount of addresses
+     */
+    public ForwardingTable(int size) {
+        this(size, DEFAULT_AGE_MILLIS);
+    }
+
+    /**
+     * Creates a table for addresses 0 to size - 1
+     * @param size Amount of addresses
+     * @param ageMillis Time after which an entry that wasn't refreshed expires
+     */
+    public ForwardingTable(int size, long ageMillis) {
+        this.pages = new AtomicReferenceArray<>((size + PAGE_SIZE - 1) >> PAGE_BITS);
+        this.ageNanos = TimeUnit.MILLISECONDS.toNanos(ageMillis);
+    }
+
+    /**
+     * Records that a frame from given address arrived on given port
+     * @param address Source address
+     * @param port Port the frame arrived on
+     * @return true if the address was unknown, expired or moved to a different port
+     */
+    public boolean learn(int address, T port) {
+        Page<T> page = pages.get(address >> PAGE_BITS);
+        if (page == null) {
+            pages.compareAndSet(address >> PAGE_BITS, null, new Page<>());
+            page = pages.get(address >> PAGE_BITS);
+        }
+        int index = address & (PAGE_SIZE - 1);
+        long now = System.nanoTime();
+        boolean learned = page.ports.get(index) != port || now - page.lastSeen.get(index) > ageNanos;
+        page.lastSeen.lazySet(index, now);
+        if (learned) page.ports.set(index, port);
+        return learned;
+    }
+
+    /**
+     * Finds the port an address was last seen on
+     * @param address Destination address
+     * @return Port, or null if the address is unknown or its entry expired
+     */
+    public T lookup(int address) {
+        Page<T> page = pages.get(address >> PAGE_BITS);
+        if (page == null) return null;
+        int index = address & (PAGE_SIZE - 1);
+        T port = page.ports.get(index);
+        if (port != null && System.nanoTime() - page.lastSeen.get(index) > ageNanos) return null;
+        return port;
+    }
+
+    /**
+     * Ports and last seen times of 256 consecutive addresses
+     */
+    private static class Page<T> {
+        final AtomicReferenceArray<T> ports = new AtomicReferenceArray<>(PAGE_SIZE);
+        final AtomicLongArray lastSeen = new AtomicLongArray(PAGE_SIZE);
+    }
+}
@@ -0,0 +1,186 @@
+package starofstars;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <h3>Frame class of Star of Stars project</h3>
+ * Frames are used to build data packets to be sent to the network
+ * Frames can be encoded into a byte array to be sent, and vice versa
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class Frame {
+
+    private int casSrc;
+    private int nodeSrc;
+    private int ack;
+    private int seq = -1;
+    private int flowSeq;
+    private String data;
+
+    private boolean crcVerified;
+    private int casDst;
+    private int nodeDst;
+    private int size;
+
+    /**
+     * Creates a new Frame with the given data
+     * @param casSrc Source arm switch
+     * @param nodeSrc Source node
+     * @param ack Acknowledgement type
+     * @param data Raw message (including "x_y:")
+     */
+    public Frame(int casSrc, int nodeSrc, int ack, String data) {
+        this.casSrc = casSrc;
+        this.nodeSrc = nodeSrc;
+        this.ack = ack;
+        this.data = data;
+    }
+
+    /**
+     * Creates a new Frame with the given data and a sequence header
+     * @param casSrc Source arm switch
+     * @param nodeSrc Source node
+     * @param ack Acknowledgement type
+     * @param seq Sequence number
+     * @param flowSeq Sequence number of the frame among those from the same source to the same destination
+     * @param data Raw message (including "x_y:")
+     */
+    public Frame(int casSrc, int nodeSrc, int ack, int seq, int flowSeq, String data) {
+        this(casSrc, nodeSrc, ack, data);
+        this.seq = seq;
+        this.flowSeq = flowSeq;
+    }
+
+    /**
+     * Encodes a frame object into a byte[] ready to be sent over a Socket.
+     * Uses the legacy header if the frame fits it, see FrameView.
+     * @param frame Frame to encode
+     * @return Full packet byte array
+     */
+    public static byte[] encode(Frame frame) {
+        int src = FrameView.address(frame.casSrc, frame.nodeSrc);
+        byte[] bytes = new byte[FrameView.encodedLength(src, frame.seq >= 0, frame.data)];
+        if (frame.seq < 0) FrameView.encode(bytes, 0, src, frame.ack, frame.data);
+        else FrameView.encode(bytes, 0, src, frame.ack, frame.seq, frame.flowSeq, frame.data);
+        return bytes;
+    }
+
+    /**
+     * Decodes a byte array holding a legacy or v2 frame back into a Frame object
+     * @param bytes Byte array to decode
+     * @return Populated frame object
+     */
+    public static Frame decode(byte[] bytes) {
+        FrameView view = new FrameView().wrap(bytes);
+
+        //Verify CRC
+        boolean crcVerified = view.verifyCrc();
+
+        //Get source
+        int casSrc = view.srcArm();
+        int nodeSrc = view.srcNode();
+
+        //Get ACK type
+        int ack = view.ack();
+
+        //Grab sequence numbers of data frames and their ACKs, then data
+        int seq = view.hasSequence() ? view.seq() : -1;
+        int flowSeq = view.hasSequence() ? view.flowSeq() : 0;
+        String data = casSrc + "_" + nodeSrc + ":" + new String(bytes, view.messageOffset(), view.messageLength(), StandardCharsets.ISO_8859_1);
+
+        //Build frame
+        Frame frame = new Frame(casSrc, nodeSrc, ack, seq, flowSeq, data);
+        frame.casDst = view.dstArm();
+        frame.nodeDst = view.dstNode();
+        frame.crcVerified = crcVerified;
+        frame.size = view.size();
+
+        return frame;
+    }
+
+    /**
+     * Gets the length of a frame on the wire, header plus the amount of data given by its size field.
+     * Switches reuse frame arrays for ACKs, so this may be shorter than the array itself.
+     * @param bytes Formatted data frame
+     * @return Length in bytes
+     */
+    public static int length(byte[] bytes) {
+        return FrameView.length(bytes, 0);
+    }
+
+    /**
+     * Get acknowledgement value
+     * @return ACK
+     */
+    public int getAck() {
+        return ack;
+    }
+
+    /**
+     * Get sequence number
+     * @return Sequence number, or -1 if the frame has no sequence header
+     */
+    public int getSeq() {
+        return seq;
+    }
+
+    /**
+     * Get sequence number among the frames from this frame's source to its destination
+     * @return Flow sequence number
+     */
+    public int getFlowSeq() {
+        return flowSeq;
+    }
+
+    /**
+     * Get source arm switch
+     * @return Source arm switch ID
+     */
+    public int getCasSrc() {
+        return casSrc;
+    }
+
+    /**
+     * Get source node
+     * @return Source node ID
+     */
+    public int getNodeSrc() {
+        return nodeSrc;
+    }
+
+    /**
+     * Get destination arm switch. Only set by decode.
+     * @return Destination arm switch ID
+     */
+    public int getCasDst() {
+        return casDst;
+    }
+
+    /**
+     * Get destination node. Only set by decode.
+     * @return Destination node ID
+     */
+    public int getNodeDst() {
+        return nodeDst;
+    }
+
+    /**
+     * Get message data (including source header x_y:)
+     * @return Message
+     */
+    public String getData() {
+        return data;
+    }
+
+    /**
+     * Check if CRC from last decode was verified.
+     * This field is not set on user-created frames.
+     * @return CRC verified state as boolean
+     */
+    public boolean isCrcVerified() {
+        return crcVerified;
+    }
+}
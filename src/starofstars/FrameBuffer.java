@@ -0,0 +1,116 @@
+package starofstars;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h3>FrameBuffer class of Star of Stars project</h3>
+ * FrameBuffer is a pooled, reference counted frame. It is a FrameView over its own max-size array,
+ * so switches read and rewrite headers on it directly.
+ * <p>
+ * Whoever holds a FrameBuffer owns one reference. Handing it to a FrameQueue, LinkChannel.write or
+ * LinkChannel.Receiver passes that reference on; everyone else must retain() first. The buffer goes back
+ * to its pool when the last reference is released, so a frame flooded to N ports is shared by all N writes
+ * and recycled after the last one completes. A buffer must not be modified once it has been shared:
+ * nodes keep the frames they sent for retransmission, and memory links hand that very buffer to the switch,
+ * so switches call {@link #unshared()} before rewriting a header.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class FrameBuffer extends FrameView {
+    private final FrameBufferPool pool;
+    private final AtomicInteger references = new AtomicInteger();
+    private volatile long timestamp; //Time the frame was last queued, see HopTimes
+
+    /**
+     * Creates a new max-size buffer belonging to given pool
+     * @param pool Pool the buffer is returned to
+     */
+    FrameBuffer(FrameBufferPool pool) {
+        this.pool = pool;
+        super.wrap(new byte[MAX_FRAME_LENGTH], 0);
+    }
+
+    /**
+     * FrameBuffers always view their own array
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public FrameView wrap(byte[] bytes, int offset) {
+        throw new UnsupportedOperationException("FrameBuffer can't be re-wrapped");
+    }
+
+    /**
+     * Adds a reference, e.g. before handing the buffer to one more port
+     * @return This buffer
+     */
+    public FrameBuffer retain() {
+        references.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Adds several references at once, e.g. before flooding the buffer to that many ports
+     * @param count Amount of references to add
+     * @return This buffer
+     */
+    public FrameBuffer retain(int count) {
+        references.addAndGet(count);
+        return this;
+    }
+
+    /**
+     * Drops a reference, recycling the buffer once none are left
+     */
+    public void release() {
+        int left = references.decrementAndGet();
+        if (left == 0) pool.recycle(this);
+        else if (left < 0) throw new IllegalStateException("FrameBuffer released more often than retained");
+    }
+
+    /**
+     * Copies this frame into a new buffer from the same pool, e.g. to build an ACK
+     * while the original is still being sent
+     * @return Copy owned by the caller
+     */
+    public FrameBuffer copy() {
+        FrameBuffer copy = pool.acquire();
+        System.arraycopy(bytes, 0, copy.bytes, 0, length());
+        return copy;
+    }
+
+    /**
+     * Gets a buffer the caller may rewrite: this one if the caller holds its only reference, otherwise
+     * a copy, in which case the caller's reference to this buffer is released
+     * @return Buffer owned by the caller alone
+     */
+    public FrameBuffer unshared() {
+        if (references.get() == 1) return this;
+        FrameBuffer copy = copy();
+        release();
+        return copy;
+    }
+
+    /**
+     * @return Time the frame was last queued, if sos.timing is enabled
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Stamps the frame with the time it is queued
+     * @param nanos System.nanoTime() value
+     */
+    public void setTimestamp(long nanos) {
+        this.timestamp = nanos;
+    }
+
+    /**
+     * Called by the pool when handing out the buffer
+     */
+    void acquired() {
+        references.set(1);
+    }
+}
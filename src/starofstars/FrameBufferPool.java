@@ -0,0 +1,72 @@
+package starofstars;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * <h3>FrameBufferPool class of Star of Stars project</h3>
+ * FrameBufferPool recycles FrameBuffers so links don't allocate a new array for every frame they read.
+ * The pool only bounds how many idle buffers it keeps; if it runs dry a new buffer is allocated,
+ * and recycled buffers beyond the limit are left to the garbage collector.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class FrameBufferPool {
+    private static final FrameBufferPool shared = new FrameBufferPool(Config.getInt("pool.size", 4096));
+
+    private final ArrayBlockingQueue<FrameBuffer> free;
+
+    /**
+     * Creates a pool keeping up to given amount of idle buffers
+     * @param capacity Maximum idle buffers
+     */
+    public FrameBufferPool(int capacity) {
+        this.free = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Gets the pool shared by all switches and links in this JVM, sized by sos.pool.size
+     * @return Shared pool
+     */
+    public static FrameBufferPool shared() {
+        return shared;
+    }
+
+    /**
+     * Takes an idle buffer, or allocates one if the pool is empty
+     * @return Buffer with one reference owned by the caller
+     */
+    public FrameBuffer acquire() {
+        FrameBuffer buffer = free.poll();
+        if (buffer == null) buffer = new FrameBuffer(this);
+        buffer.acquired();
+        return buffer;
+    }
+
+    /**
+     * Copies an encoded frame into a pooled buffer
+     * @param frame Encoded frame
+     * @return Buffer with one reference owned by the caller
+     */
+    public FrameBuffer copyOf(byte[] frame) {
+        FrameBuffer buffer = acquire();
+        System.arraycopy(frame, 0, buffer.array(), 0, Frame.length(frame));
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer whose last reference was released
+     * @param buffer Unreferenced buffer
+     */
+    void recycle(FrameBuffer buffer) {
+        free.offer(buffer);
+    }
+
+    /**
+     * @return Amount of idle buffers
+     */
+    public int idle() {
+        return free.size();
+    }
+}
@@ -0,0 +1,230 @@
+package starofstars;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h3>FrameQueue class of Star of Stars project</h3>
+ * FrameQueue is a bounded ingress queue for a switching thread. Producers (link threads) offer frames
+ * and wake the consumer, and the consumer parks while the queue is empty instead of spinning.
+ * When the queue is full, the configured backpressure policy decides what happens to the new frame.
+ * End flags and firewall rules are never dropped, since nothing retransmits them, and never wait either: they don't
+ * count against the capacity and are always queued at once, in order with the data frames around them.
+ * Queued frames are owned by the queue; dropped frames are released back to their pool.
+ * With sos.timing enabled, frames are stamped with the time they were offered, see HopTimes.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class FrameQueue {
+    /**
+     * BLOCK makes the producer wait for space, DROP_TAIL discards the incoming frame,
+     * DROP_OLDEST discards the frame at the head of the queue to make room.
+     * Switch ingress queues default to DROP_TAIL: their producers are link threads, and arm and core switches feed
+     * each other, so with BLOCK both sides can end up waiting for the other's full queue. BLOCK is only safe where
+     * the consumer never waits on a switch, like a socket link's own egress queue drained by its writer thread.
+     * The NIO selector thread never waits, it drops the new frame like DROP_TAIL instead.
+     */
+    public enum BackpressurePolicy {BLOCK, DROP_TAIL, DROP_OLDEST}
+
+    public static final int DEFAULT_CAPACITY = Config.getInt("queue.capacity", 1024);
+    public static final BackpressurePolicy DEFAULT_POLICY = Config.getEnum("queue.policy", BackpressurePolicy.DROP_TAIL);
+
+    //Waiting producers poll for room this often
+    private static final long FULL_BACKOFF_NANOS = 10_000;
+
+    private final ConcurrentLinkedQueue<FrameBuffer> queue = new ConcurrentLinkedQueue<>();
+    private final int capacity;
+    private final BackpressurePolicy policy;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger dataFrames = new AtomicInteger(); //Queued or reserved frames counted against the capacity
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger highWatermark = new AtomicInteger();
+    private volatile Thread consumer;
+
+    /**
+     * Creates a queue with the capacity and policy configured by sos.queue.capacity and sos.queue.policy
+     */
+    public FrameQueue() {
+        this(DEFAULT_CAPACITY, DEFAULT_POLICY);
+    }
+
+    /**
+     * Creates a queue with given capacity and backpressure policy
+     * @param capacity Maximum amount of queued frames
+     * @param policy Action taken when queue is full
+     */
+    public FrameQueue(int capacity, BackpressurePolicy policy) {
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Registers the thread that drains this queue so it can be woken when frames arrive.
+     * Several queues may share one consumer.
+     * @param consumer Switching thread
+     */
+    public void setConsumer(Thread consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Adds a frame to the queue, applying the backpressure policy if the queue is full.
+     * Takes over the caller's reference to the frame.
+     * @param frame Formatted data frame
+     * @return true if frame was queued, false if it was dropped
+     */
+    public boolean offer(FrameBuffer frame) {
+        if (HopTimes.ENABLED) frame.setTimestamp(System.nanoTime());
+        boolean queued;
+        if (frame.isControl()) {
+            queued = true;
+        } else if (policy == BackpressurePolicy.BLOCK && !NioTransport.isSelectorThread()) {
+            queued = awaitRoom();
+        } else if (policy == BackpressurePolicy.DROP_OLDEST) {
+            queued = reserveDroppingOldest();
+        } else {
+            queued = reserve();
+        }
+
+        if (queued) {
+            //Counted before it is visible, so the consumer never takes the count below zero
+            int depth = size.incrementAndGet();
+            queue.add(frame);
+            //Checked first so offers only write the shared counter when the queue got deeper than ever
+            if (depth > highWatermark.get()) highWatermark.accumulateAndGet(depth, Math::max);
+        } else {
+            frame.release();
+            dropped.incrementAndGet();
+        }
+        wake();
+        return queued;
+    }
+
+    /**
+     * Takes a place for one data frame if the queue has room
+     * @return false if the queue is full
+     */
+    private boolean reserve() {
+        int count;
+        do {
+            count = dataFrames.get();
+            if (count >= capacity) return false;
+        } while (!dataFrames.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    /**
+     * Waits until a place for one data frame is free and takes it
+     * @return false if the thread was interrupted while waiting
+     */
+    private boolean awaitRoom() {
+        while (!reserve()) {
+            LockSupport.parkNanos(this, FULL_BACKOFF_NANOS);
+            if (Thread.currentThread().isInterrupted()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drops the oldest data frames until a place is free and takes it. Control frames are skipped over,
+     * they keep their place in the queue.
+     * @return true, the new frame always gets a place
+     */
+    private boolean reserveDroppingOldest() {
+        while (!reserve()) {
+            FrameBuffer oldest = null;
+            for (FrameBuffer queued : queue) {
+                if (!queued.isControl()) {
+                    oldest = queued;
+                    break;
+                }
+            }
+            //Only one of this thread and the consumer can remove it, whoever does owns it
+            if (oldest != null && queue.remove(oldest)) {
+                size.decrementAndGet();
+                dataFrames.decrementAndGet();
+                oldest.release();
+                dropped.incrementAndGet();
+            } else {
+                //Full of frames other producers reserved places for but haven't added yet
+                Thread.onSpinWait();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the next frame without waiting
+     * @return Next frame, or null if queue is empty
+     */
+    public FrameBuffer poll() {
+        FrameBuffer frame = queue.poll();
+        if (frame != null) {
+            size.decrementAndGet();
+            if (!frame.isControl()) dataFrames.decrementAndGet();
+        }
+        return frame;
+    }
+
+    /**
+     * Removes the next frame, parking the calling thread until one arrives.
+     * The calling thread must be the registered consumer.
+     * @return Next frame, or null if the thread was woken by {@link #wake()} with nothing queued
+     */
+    public FrameBuffer take() {
+        FrameBuffer frame = poll();
+        if (frame == null) {
+            LockSupport.park(this);
+            frame = poll();
+        }
+        return frame;
+    }
+
+    /**
+     * Removes the next frame, parking the calling thread for at most given time until one arrives.
+     * The calling thread must be the registered consumer.
+     * @param nanos Maximum time to wait
+     * @return Next frame, or null if none arrived in time
+     */
+    public FrameBuffer poll(long nanos) {
+        FrameBuffer frame = poll();
+        if (frame == null && nanos > 0) {
+            LockSupport.parkNanos(this, nanos);
+            frame = poll();
+        }
+        return frame;
+    }
+
+    /**
+     * Unparks the consumer thread, e.g. so it can notice a shutdown
+     */
+    public void wake() {
+        Thread thread = consumer;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    /**
+     * @return Amount of frames currently queued
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return Most frames ever queued at once
+     */
+    public int getHighWatermark() {
+        return highWatermark.get();
+    }
+
+    /**
+     * @return Amount of frames dropped by the backpressure policy so far
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
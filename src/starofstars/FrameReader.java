@@ -0,0 +1,51 @@
+package starofstars;
+
+import java.io.*;
+
+/**
+ * <h3>FrameReader class of Star of Stars project</h3>
+ * FrameReader decodes the byte stream of a socket back into individual frames.
+ * It reads the header (5 bytes for legacy frames, 18 for v2), then uses its SIZE field to read exactly one
+ * frame's worth of data, so frames that TCP splits or batches together are always handed off whole and one at a time.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class FrameReader {
+    private final DataInputStream in;
+    private final FrameBufferPool pool;
+
+    /**
+     * Creates a new reader on top of a socket stream
+     * @param in Socket input stream
+     * @param pool Pool frames are read into
+     */
+    public FrameReader(InputStream in, FrameBufferPool pool) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.pool = pool;
+    }
+
+    /**
+     * Blocks until a full frame has been received
+     * @return Pooled frame owned by the caller, or null if the stream was closed between frames
+     * @throws IOException if the stream is closed mid-frame, errors or carries a frame too long for a buffer
+     */
+    public FrameBuffer readFrame() throws IOException {
+        int first = in.read();
+        if (first < 0) return null;
+
+        FrameBuffer frame = pool.acquire();
+        try {
+            byte[] bytes = frame.array();
+            bytes[0] = (byte) first;
+            in.readFully(bytes, 1, FrameView.headerLength(first) - 1);
+            if (frame.size() > FrameView.V2_MAX_DATA_LENGTH) throw new IOException("Frame too long: " + frame.size() + " bytes");
+            in.readFully(bytes, frame.dataOffset(), frame.size());
+            return frame;
+        } catch (IOException e) {
+            frame.release();
+            throw e;
+        }
+    }
+}
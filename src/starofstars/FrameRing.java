@@ -0,0 +1,132 @@
+package starofstars;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h3>FrameRing class of Star of Stars project</h3>
+ * FrameRing is a bounded lock-free ring buffer of frames with any number of producers and a single consumer.
+ * Every slot has a sequence number telling producers whether it is free for the lap they are on and the
+ * consumer whether it has been filled, so producers only contend on one compare-and-set of the tail
+ * and the consumer never does. The consumer parks while the ring is empty and is unparked by the next offer.
+ * Queued frames are owned by the ring.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class FrameRing {
+    private final AtomicReferenceArray<FrameBuffer> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0; //Only touched by the consumer
+    private volatile Thread consumer;
+    private volatile boolean waiting = false;
+
+    /**
+     * Creates a ring
+     * @param capacity Minimum amount of frames the ring holds, rounded up to a power of two
+     */
+    public FrameRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Registers the thread that drains this ring so it can be woken when frames arrive
+     * @param consumer Consuming thread
+     */
+    public void setConsumer(Thread consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Adds a frame to the ring without waiting. Takes over the caller's reference if it succeeds.
+     * @param frame Formatted data frame
+     * @return true if the frame was queued, false if the ring is full
+     */
+    public boolean offer(FrameBuffer frame) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, frame);
+                    sequences.set(index, position + 1); //Publishes the frame to the consumer
+                    if (waiting) wake();
+                    return true;
+                }
+            } else if (lag < 0) {
+                return false; //Consumer hasn't freed this slot from the last lap yet
+            }
+            //Another producer took the position first, try the next one
+        }
+    }
+
+    /**
+     * Removes the next frame without waiting. Must only be called by the consumer.
+     * @return Next frame, or null if the ring is empty
+     */
+    public FrameBuffer poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) return null;
+        FrameBuffer frame = slots.get(index);
+        slots.set(index, null);
+        sequences.lazySet(index, head + mask + 1); //Frees the slot for the next lap
+        head++;
+        return frame;
+    }
+
+    /**
+     * Removes the next frame, parking the calling thread until one arrives. Must only be called by the registered consumer.
+     * @return Next frame, or null if the thread was woken by {@link #wake()} with nothing queued
+     */
+    public FrameBuffer take() {
+        return take(-1);
+    }
+
+    /**
+     * Like {@link #take()}, but parks at most given time
+     * @param timeoutNanos Longest time to park, or -1 to park until a frame arrives
+     * @return Next frame, or null if none arrived in time or the thread was woken by {@link #wake()}
+     */
+    public FrameBuffer take(long timeoutNanos) {
+        FrameBuffer frame = poll();
+        if (frame != null) return frame;
+
+        //Announced before checking again, so an offer after the check always sees it and unparks
+        waiting = true;
+        frame = poll();
+        if (frame == null) {
+            if (timeoutNanos < 0) LockSupport.park(this);
+            else LockSupport.parkNanos(this, timeoutNanos);
+            frame = poll();
+        }
+        waiting = false;
+        return frame;
+    }
+
+    /**
+     * Unparks the consumer thread, e.g. so it can notice a shutdown
+     */
+    public void wake() {
+        Thread thread = consumer;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    /**
+     * @return true if no frames are queued. Only exact when called by the consumer.
+     */
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
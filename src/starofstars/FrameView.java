@@ -0,0 +1,605 @@
+package starofstars;
+
+import java.util.zip.CRC32C;
+
+/**
+ * <h3>FrameView class of Star of Stars project</h3>
+ * FrameView is a reusable flyweight over an encoded frame in a byte array. It reads and rewrites header
+ * fields in place with primitive accessors, so switches can route frames without decoding them into
+ * Frame objects or Strings. Static encode methods write new frames straight into a caller's buffer.
+ * <p>
+ * Frames come in two header versions, told apart by their first byte:
+ * <pre>
+ * legacy: [DST][SRC][CRC][SIZE][ACK][data]                                    4 bit arm + 4 bit node addresses
+ * v2:     [0xF2][ACK][DST ARM 2][DST NODE 2][SRC ARM 2][SRC NODE 2][SIZE 2][SEQ][FLOW SEQ][CRC 4][data]
+ * </pre>
+ * Encoders write v2 frames. With sos.frame.version=1 they use the legacy header whenever the addresses and data
+ * fit it (arms 0-14, nodes 0-15, at most 255 data bytes), so a legacy DST byte never equals the v2 marker.
+ * Both versions are always decoded. Addresses are passed around as one int, arm << 16 | node, whatever the version.
+ * <p>
+ * The CRC is a CRC-32C over every byte of the frame except the CRC field itself; v2 frames carry all 32 bits.
+ * Legacy frames only have room for its low byte, an 8 bit check which misses about one corruption in 256, which is
+ * why they are no longer the default. It is computed in place over the header and data slices of the backing array with one reused CRC32C per
+ * thread, so switches can verify and reseal frames without copying or allocating anything.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class FrameView {
+    public static final int HEADER_LENGTH = 5;
+    public static final int MAX_DATA_LENGTH = 255;
+    public static final int V2_MARKER = 0xF2;
+    public static final int V2_HEADER_LENGTH = 18;
+    public static final int V2_MAX_DATA_LENGTH = 4096;
+    public static final int MAX_FRAME_LENGTH = V2_HEADER_LENGTH + V2_MAX_DATA_LENGTH;
+    //Data of legacy data frames and their ACKs starts with [SEQ][FLOW SEQ], see TransmitWindow. v2 has them in the header.
+    public static final int SEQUENCE_LENGTH = 2;
+    public static final int MAX_ARM = 0xFFFF;
+    public static final int MAX_NODE = 0xFFFF;
+    public static final boolean V2_ONLY = Config.getInt("frame.version", 2) >= 2;
+    public static final boolean VERIFY_CRC = Config.getBoolean("crc.verify", true);
+
+    //Reset before every use, CRC32C keeps no other state
+    private static final ThreadLocal<CRC32C> crcs = ThreadLocal.withInitial(CRC32C::new);
+
+    //Legacy header field offsets
+    private static final int DST = 0;
+    private static final int SRC = 1;
+    private static final int CRC = 2;
+    private static final int SIZE = 3;
+    private static final int ACK = 4;
+
+    //v2 header field offsets
+    private static final int V2_ACK = 1;
+    private static final int V2_DST = 2;
+    private static final int V2_SRC = 6;
+    private static final int V2_SIZE = 10;
+    private static final int V2_SEQ = 12;
+    private static final int V2_FLOW_SEQ = 13;
+    private static final int V2_CRC = 14;
+
+    protected byte[] bytes;
+    protected int offset;
+
+    /**
+     * Points this view at a frame starting at the beginning of an array
+     * @param bytes Encoded frame
+     * @return This view
+     */
+    public FrameView wrap(byte[] bytes) {
+        return wrap(bytes, 0);
+    }
+
+    /**
+     * Points this view at a frame starting at given offset
+     * @param bytes Buffer holding an encoded frame
+     * @param offset Index of the frame's first header byte
+     * @return This view
+     */
+    public FrameView wrap(byte[] bytes, int offset) {
+        this.bytes = bytes;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * @return Backing array
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    /**
+     * @return true if the frame has a v2 header
+     */
+    public boolean isV2() {
+        return (bytes[offset] & 0xFF) == V2_MARKER;
+    }
+
+    /**
+     * @return Length of the frame's header
+     */
+    public int headerLength() {
+        return isV2() ? V2_HEADER_LENGTH : HEADER_LENGTH;
+    }
+
+    /**
+     * @return Destination address (arm << 16 | node)
+     */
+    public int dst() {
+        return isV2() ? getInt(offset + V2_DST) : legacyAddress(bytes[offset + DST]);
+    }
+
+    /**
+     * @return Destination arm switch
+     */
+    public int dstArm() {
+        return armOf(dst());
+    }
+
+    /**
+     * @return Destination node
+     */
+    public int dstNode() {
+        return nodeOf(dst());
+    }
+
+    /**
+     * @return Source address (arm << 16 | node)
+     */
+    public int src() {
+        return isV2() ? getInt(offset + V2_SRC) : legacyAddress(bytes[offset + SRC]);
+    }
+
+    /**
+     * @return Source arm switch
+     */
+    public int srcArm() {
+        return armOf(src());
+    }
+
+    /**
+     * @return Source node
+     */
+    public int srcNode() {
+        return nodeOf(src());
+    }
+
+    /**
+     * @return CRC as stored in the header, one byte for legacy frames and four for v2
+     */
+    public int crc() {
+        return isV2() ? getInt(offset + V2_CRC) : bytes[offset + CRC] & 0xFF;
+    }
+
+    /**
+     * @return true if the stored CRC matches the frame's contents
+     */
+    public boolean verifyCrc() {
+        int crc = crc32c(bytes, offset, isV2(), size());
+        return isV2() ? crc == crc() : (crc & 0xFF) == crc();
+    }
+
+    /**
+     * Recomputes the stored CRC. Must be called after rewriting a frame that is sent on.
+     */
+    public void seal() {
+        int crc = crc32c(bytes, offset, isV2(), size());
+        if (isV2()) putInt(offset + V2_CRC, crc);
+        else bytes[offset + CRC] = (byte) crc;
+    }
+
+    /**
+     * @return Amount of data bytes following the header
+     */
+    public int size() {
+        return isV2() ? getShort(offset + V2_SIZE) : bytes[offset + SIZE] & 0xFF;
+    }
+
+    /**
+     * @return ACK type
+     */
+    public int ack() {
+        return bytes[offset + (isV2() ? V2_ACK : ACK)] & 0xFF;
+    }
+
+    /**
+     * @return true if the frame carries sequence numbers, i.e. the frame is a data frame or an ACK of one
+     */
+    public boolean hasSequence() {
+        int ack = ack();
+        return (isV2() || size() >= SEQUENCE_LENGTH) && (ack == 111 || (ack >= 1 && ack <= 4));
+    }
+
+    /**
+     * @return true if the frame is a CRC error, firewalled or positive ACK
+     */
+    public boolean isAck() {
+        int ack = ack();
+        return ack >= 1 && ack <= 3;
+    }
+
+    /**
+     * @return true for end flags and firewall rules, which nobody retransmits, so they must never be dropped
+     */
+    public boolean isControl() {
+        int ack = ack();
+        return ack == 123 || ack == 5;
+    }
+
+    /**
+     * @return Sequence number, only meaningful if {@link #hasSequence()}
+     */
+    public int seq() {
+        return (isV2() ? bytes[offset + V2_SEQ] : data(0)) & 0xFF;
+    }
+
+    /**
+     * @return Per destination sequence number, only meaningful if {@link #hasSequence()}
+     */
+    public int flowSeq() {
+        return (isV2() ? bytes[offset + V2_FLOW_SEQ] : data(1)) & 0xFF;
+    }
+
+    /**
+     * @return Index of the first data byte in the backing array
+     */
+    public int dataOffset() {
+        return offset + headerLength();
+    }
+
+    /**
+     * @param index Index into the data section
+     * @return Data byte at index
+     */
+    public byte data(int index) {
+        return bytes[dataOffset() + index];
+    }
+
+    /**
+     * @return Index of the first message byte in the backing array, after a legacy sequence header
+     */
+    public int messageOffset() {
+        return !isV2() && hasSequence() ? dataOffset() + SEQUENCE_LENGTH : dataOffset();
+    }
+
+    /**
+     * @return Amount of message bytes, the data without a legacy sequence header
+     */
+    public int messageLength() {
+        return size() - (messageOffset() - dataOffset());
+    }
+
+    /**
+     * @return Length of the frame on the wire, header plus data
+     */
+    public int length() {
+        return headerLength() + size();
+    }
+
+    /**
+     * @param dst New destination address. Legacy frames can only hold legacy addresses.
+     */
+    public void setDst(int dst) {
+        if (isV2()) putInt(offset + V2_DST, dst);
+        else bytes[offset + DST] = (byte) (armOf(dst) << 4 | nodeOf(dst));
+    }
+
+    /**
+     * @param size New data length
+     */
+    public void setSize(int size) {
+        if (isV2()) putShort(offset + V2_SIZE, size);
+        else bytes[offset + SIZE] = (byte) size;
+    }
+
+    /**
+     * @param ack New ACK type
+     */
+    public void setAck(int ack) {
+        bytes[offset + (isV2() ? V2_ACK : ACK)] = (byte) ack;
+    }
+
+    /**
+     * Turns the frame into an ACK of given type addressed back to its source
+     * @param ack ACK type
+     */
+    public void toAck(int ack) {
+        setDst(src());
+        setAck(ack);
+    }
+
+    /**
+     * Cuts the message off, keeping the sequence numbers an ACK has to echo
+     */
+    public void dropMessage() {
+        setSize(isV2() ? 0 : Math.min(size(), SEQUENCE_LENGTH));
+    }
+
+    /**
+     * Combines an arm switch and node ID into one address
+     * @param arm Arm switch ID, 0 to MAX_ARM
+     * @param node Node ID, 0 to MAX_NODE
+     * @return Address
+     */
+    public static int address(int arm, int node) {
+        return arm << 16 | node;
+    }
+
+    /**
+     * @param address Address
+     * @return Arm switch ID of the address
+     */
+    public static int armOf(int address) {
+        return address >>> 16;
+    }
+
+    /**
+     * @param address Address
+     * @return Node ID of the address
+     */
+    public static int nodeOf(int address) {
+        return address & 0xFFFF;
+    }
+
+    /**
+     * @param address Address
+     * @return true if the address fits a legacy header byte
+     */
+    public static boolean isLegacy(int address) {
+        return armOf(address) < 15 && nodeOf(address) < 16;
+    }
+
+    /**
+     * Gets the header length of a frame from its first byte
+     * @param first First byte of the frame
+     * @return HEADER_LENGTH or V2_HEADER_LENGTH
+     */
+    public static int headerLength(int first) {
+        return (first & 0xFF) == V2_MARKER ? V2_HEADER_LENGTH : HEADER_LENGTH;
+    }
+
+    /**
+     * Gets the length of an encoded frame, header plus data. Switches reuse frame arrays for ACKs,
+     * so this may be shorter than the array itself.
+     * @param bytes Buffer holding an encoded frame
+     * @param off Index of the frame's first header byte
+     * @return Length in bytes
+     */
+    public static int length(byte[] bytes, int off) {
+        if ((bytes[off] & 0xFF) == V2_MARKER) return V2_HEADER_LENGTH + ((bytes[off + V2_SIZE] & 0xFF) << 8 | bytes[off + V2_SIZE + 1] & 0xFF);
+        return HEADER_LENGTH + (bytes[off + SIZE] & 0xFF);
+    }
+
+    /**
+     * Encodes a frame without sequence numbers into a buffer
+     * @param out Destination buffer, needs V2_HEADER_LENGTH + length bytes from off
+     * @param off Index to write the header at
+     * @param dst Destination address
+     * @param src Source address
+     * @param ack ACK type
+     * @param data Data source
+     * @param dataOff Index of first data byte
+     * @param length Amount of data bytes, at most V2_MAX_DATA_LENGTH
+     * @return Length of the encoded frame
+     */
+    public static int encode(byte[] out, int off, int dst, int src, int ack, byte[] data, int dataOff, int length) {
+        boolean v2 = needsV2(dst, src, length);
+        System.arraycopy(data, dataOff, out, off + (v2 ? V2_HEADER_LENGTH : HEADER_LENGTH), length);
+        return encodeHeader(out, off, v2, dst, src, ack, 0, 0, length);
+    }
+
+    /**
+     * Encodes a message line of the form "x_y:message" into a buffer without splitting or allocating.
+     * Message characters are stored one byte each as ISO-8859-1, characters outside it become '?'.
+     * @param out Destination buffer, needs {@link #encodedLength} bytes from off
+     * @param off Index to write the header at
+     * @param src Source address
+     * @param ack ACK type
+     * @param line Raw message including destination ("x_y:message")
+     * @return Length of the encoded frame
+     * @throws IllegalArgumentException if the message is longer than V2_MAX_DATA_LENGTH
+     */
+    public static int encode(byte[] out, int off, int src, int ack, CharSequence line) {
+        return encodeLine(out, off, src, ack, -1, 0, line);
+    }
+
+    /**
+     * Encodes a message line of the form "x_y:message" with sequence numbers, one ISO-8859-1 byte per character
+     * @param out Destination buffer, needs {@link #encodedLength} bytes from off
+     * @param off Index to write the header at
+     * @param src Source address
+     * @param ack ACK type
+     * @param seq Sequence number of the frame
+     * @param flowSeq Sequence number of the frame among those from the same source to the same destination
+     * @param line Raw message including destination ("x_y:message")
+     * @return Length of the encoded frame
+     * @throws IllegalArgumentException if the message is longer than V2_MAX_DATA_LENGTH
+     */
+    public static int encode(byte[] out, int off, int src, int ack, int seq, int flowSeq, CharSequence line) {
+        return encodeLine(out, off, src, ack, seq, flowSeq, line);
+    }
+
+    /**
+     * Encodes an ACK, a frame holding only the sequence numbers of the frame it answers
+     * @param out Destination buffer, needs V2_HEADER_LENGTH bytes from off
+     * @param off Index to write the header at
+     * @param dst Destination address, the source of the acknowledged frame
+     * @param src Source address
+     * @param ack ACK type
+     * @param seq Sequence number of the acknowledged frame
+     * @param flowSeq Flow sequence number of the acknowledged frame
+     * @return Length of the encoded frame
+     */
+    public static int encodeAck(byte[] out, int off, int dst, int src, int ack, int seq, int flowSeq) {
+        boolean v2 = needsV2(dst, src, SEQUENCE_LENGTH);
+        if (!v2) {
+            out[off + HEADER_LENGTH] = (byte) seq;
+            out[off + HEADER_LENGTH + 1] = (byte) flowSeq;
+        }
+        return encodeHeader(out, off, v2, dst, src, ack, seq, flowSeq, v2 ? 0 : SEQUENCE_LENGTH);
+    }
+
+    /**
+     * Gets the length a line of the form "x_y:message" will encode to
+     * @param src Source address
+     * @param sequenced true if the frame will carry sequence numbers
+     * @param line Raw message including destination
+     * @return Length of the encoded frame
+     */
+    public static int encodedLength(int src, boolean sequenced, CharSequence line) {
+        int skip = sequenced ? SEQUENCE_LENGTH : 0;
+        int message = messageLength(line);
+        if (needsV2(destination(line), src, skip + message)) return V2_HEADER_LENGTH + message;
+        return HEADER_LENGTH + skip + message;
+    }
+
+    /**
+     * Gets the length of the message of a line of the form "x_y:message". Lines whose message is longer than
+     * V2_MAX_DATA_LENGTH don't fit in a frame and are rejected by encode.
+     * @param line Raw message including destination
+     * @return Length of the message in bytes, one per character
+     */
+    public static int messageLength(CharSequence line) {
+        int colon = indexOf(line, ':', 0);
+        return colon < 0 ? 0 : line.length() - colon - 1;
+    }
+
+    /**
+     * Gets the byte a message character is stored as
+     * @param c Character
+     * @return Its ISO-8859-1 byte, or '?' if it has none
+     */
+    public static byte latin1(char c) {
+        return c <= 0xFF ? (byte) c : (byte) '?';
+    }
+
+    /**
+     * Gets the destination a line of the form "x_y:message" is addressed to
+     * @param line Raw message including destination
+     * @return Destination address
+     */
+    public static int destination(CharSequence line) {
+        int colon = indexOf(line, ':', 0);
+        int underscore = indexOf(line, '_', 0);
+        int end = colon < 0 ? line.length() : colon;
+        if (underscore < 0 || underscore > end) throw new NumberFormatException("Invalid address in \"" + line + "\"");
+        int arm = parseDigits(line, 0, underscore);
+        int node = parseDigits(line, underscore + 1, end);
+        if (arm > MAX_ARM || node > MAX_NODE) throw new NumberFormatException("Address out of range in \"" + line + "\"");
+        return address(arm, node);
+    }
+
+    /**
+     * Writes the message of a line, and for legacy frames the sequence header in front of it, then the header
+     * @param seq Sequence number, or -1 for none
+     * @return Length of the encoded frame
+     * @throws IllegalArgumentException if the message is longer than V2_MAX_DATA_LENGTH
+     */
+    private static int encodeLine(byte[] out, int off, int src, int ack, int seq, int flowSeq, CharSequence line) {
+        int colon = indexOf(line, ':', 0);
+        int dst = destination(line);
+        int skip = seq >= 0 ? SEQUENCE_LENGTH : 0;
+        int length = messageLength(line);
+        if (length > V2_MAX_DATA_LENGTH) {
+            throw new IllegalArgumentException("Message too long: " + length + " bytes, at most " + V2_MAX_DATA_LENGTH);
+        }
+        boolean v2 = needsV2(dst, src, skip + length);
+
+        int start;
+        if (v2) {
+            start = off + V2_HEADER_LENGTH;
+        } else {
+            if (skip > 0) {
+                out[off + HEADER_LENGTH] = (byte) seq;
+                out[off + HEADER_LENGTH + 1] = (byte) flowSeq;
+            }
+            start = off + HEADER_LENGTH + skip;
+        }
+        for (int i = 0; i < length; i++) {
+            out[start + i] = latin1(line.charAt(colon + 1 + i));
+        }
+        return encodeHeader(out, off, v2, dst, src, ack, seq, flowSeq, v2 ? length : skip + length);
+    }
+
+    /**
+     * Writes the header fields, then the CRC over the whole frame
+     * @return Length of the encoded frame
+     */
+    private static int encodeHeader(byte[] out, int off, boolean v2, int dst, int src, int ack, int seq, int flowSeq, int length) {
+        if (v2) {
+            out[off] = (byte) V2_MARKER;
+            out[off + V2_ACK] = (byte) ack;
+            putInt(out, off + V2_DST, dst);
+            putInt(out, off + V2_SRC, src);
+            putShort(out, off + V2_SIZE, length);
+            out[off + V2_SEQ] = (byte) Math.max(seq, 0);
+            out[off + V2_FLOW_SEQ] = (byte) flowSeq;
+
+            //CRC - MUST BE LAST
+            putInt(out, off + V2_CRC, crc32c(out, off, true, length));
+            return V2_HEADER_LENGTH + length;
+        }
+
+        out[off + DST] = (byte) (armOf(dst) << 4 | nodeOf(dst));
+        out[off + SRC] = (byte) (armOf(src) << 4 | nodeOf(src));
+        out[off + SIZE] = (byte) length;
+        out[off + ACK] = (byte) ack;
+
+        //CRC - MUST BE LAST
+        out[off + CRC] = (byte) crc32c(out, off, false, length);
+
+        return HEADER_LENGTH + length;
+    }
+
+    /**
+     * Computes the CRC-32C of a frame, skipping the CRC field. The fields before and after it
+     * are fed to the checksum as two slices of the array, nothing is copied.
+     */
+    private static int crc32c(byte[] bytes, int off, boolean v2, int size) {
+        CRC32C crc = crcs.get();
+        crc.reset();
+        if (v2) {
+            crc.update(bytes, off, V2_CRC);
+            crc.update(bytes, off + V2_HEADER_LENGTH, size);
+        } else {
+            crc.update(bytes, off, CRC);
+            crc.update(bytes, off + SIZE, HEADER_LENGTH - SIZE + size);
+        }
+        return (int) crc.getValue();
+    }
+
+    private static boolean needsV2(int dst, int src, int length) {
+        return V2_ONLY || length > MAX_DATA_LENGTH || !isLegacy(dst) || !isLegacy(src);
+    }
+
+    private static int legacyAddress(byte packed) {
+        return address((packed & 0xFF) >> 4, packed & 0b00001111);
+    }
+
+    private int getInt(int index) {
+        return (bytes[index] & 0xFF) << 24 | (bytes[index + 1] & 0xFF) << 16 | (bytes[index + 2] & 0xFF) << 8 | bytes[index + 3] & 0xFF;
+    }
+
+    private int getShort(int index) {
+        return (bytes[index] & 0xFF) << 8 | bytes[index + 1] & 0xFF;
+    }
+
+    private void putInt(int index, int value) {
+        putInt(bytes, index, value);
+    }
+
+    private void putShort(int index, int value) {
+        putShort(bytes, index, value);
+    }
+
+    private static void putInt(byte[] out, int index, int value) {
+        out[index] = (byte) (value >>> 24);
+        out[index + 1] = (byte) (value >>> 16);
+        out[index + 2] = (byte) (value >>> 8);
+        out[index + 3] = (byte) value;
+    }
+
+    private static void putShort(byte[] out, int index, int value) {
+        out[index] = (byte) (value >>> 8);
+        out[index + 1] = (byte) value;
+    }
+
+    private static int indexOf(CharSequence s, char c, int from) {
+        for (int i = from; i < s.length(); i++) {
+            if (s.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static int parseDigits(CharSequence s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9' || value > MAX_ARM) throw new NumberFormatException("Invalid address in \"" + s + "\"");
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,71 @@
+package starofstars;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h3>GroupCommit class of Star of Stars project</h3>
+ * GroupCommit flushes every open OutputSink every sos.node.flushMillis on one shared daemon thread,
+ * so a node writing thousands of lines a second causes one write (and with sos.node.fsync one sync)
+ * per interval instead of one per line. At most the last interval is lost if the process dies.
+ * A flushMillis of 0 disables group commits, and sinks flush after every line instead.
+ * Sinks still open at shutdown are flushed by a shutdown hook.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public final class GroupCommit {
+    public static final long FLUSH_MILLIS = Math.max(0, Config.getLong("node.flushMillis", 100));
+    public static final boolean FSYNC = Config.getBoolean("node.fsync", false);
+
+    private static final Set<OutputSink> sinks = ConcurrentHashMap.newKeySet();
+
+    static {
+        if (FLUSH_MILLIS > 0) {
+            Thread flusher = new Thread(() -> {
+                while (true) {
+                    Threads.delay(FLUSH_MILLIS);
+                    flushAll();
+                }
+            }, "group-commit");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(GroupCommit::flushAll));
+    }
+
+    private GroupCommit() {
+    }
+
+    /**
+     * Starts flushing a sink
+     * @param sink Newly opened sink
+     */
+    static void register(OutputSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Stops flushing a sink, e.g. because it was closed
+     * @param sink Sink to forget
+     */
+    static void unregister(OutputSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Flushes every registered sink
+     */
+    private static void flushAll() {
+        for (OutputSink sink : sinks) {
+            try {
+                sink.flush();
+            } catch (IOException e) {
+                Log.error("GroupCommit: Error flushing output file");
+                e.printStackTrace();
+            }
+        }
+    }
+}
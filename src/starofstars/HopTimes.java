@@ -0,0 +1,107 @@
+package starofstars;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <h3>HopTimes class of Star of Stars project</h3>
+ * HopTimes records where frames spend their time inside one switch when started with <code>sos.timing=true</code>:
+ * <ul>
+ *     <li>INGRESS: checks on the link thread before the frame is queued (CRC, address learning)</li>
+ *     <li>QUEUE: waiting in the switch's ingress queue, including waiting for space when it is full</li>
+ *     <li>SWITCHING: the routing decision, up to handing the frame to its egress link(s)</li>
+ *     <li>EGRESS: from being handed to a link until it is written to the socket or the other end's ring</li>
+ * </ul>
+ * Frames carry the time they were queued as a FrameBuffer side channel, it never goes on the wire.
+ * A flooded frame shares one buffer between all its egress links, so its egress times are approximate.
+ * Every switch registers its HopTimes, which are all printed at shutdown, every sos.timing.reportMillis
+ * if set, or on demand through the Metrics JMX dump operation.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class HopTimes {
+    public enum Hop {INGRESS, QUEUE, SWITCHING, EGRESS}
+
+    public static final boolean ENABLED = Config.getBoolean("timing", false);
+    private static final long REPORT_MILLIS = Config.getLong("timing.reportMillis", 0);
+    private static final List<HopTimes> all = new CopyOnWriteArrayList<>();
+    private static final AtomicBoolean reporting = new AtomicBoolean();
+
+    private final String name;
+    private final LatencyHistogram[] hops = new LatencyHistogram[Hop.values().length];
+
+    /**
+     * Creates and registers the hop times of one switch
+     * @param name Switch name used in reports, e.g. "Arm 0"
+     */
+    public HopTimes(String name) {
+        this.name = name;
+        for (int i = 0; i < hops.length; i++) {
+            hops[i] = new LatencyHistogram();
+        }
+        if (!ENABLED) return;
+        all.add(this);
+        if (REPORT_MILLIS > 0 && reporting.compareAndSet(false, true)) startReporter();
+    }
+
+    /**
+     * @return Current time to measure a hop from, or 0 if timing is disabled
+     */
+    public static long now() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time from given start until now. Does nothing if timing is disabled.
+     * @param hop Hop the time was spent in
+     * @param start Time from {@link #now()} or a frame's timestamp
+     */
+    public void record(Hop hop, long start) {
+        if (ENABLED) hops[hop.ordinal()].record(System.nanoTime() - start);
+    }
+
+    /**
+     * @param hop Hop
+     * @return Histogram of the hop, or null if timing is disabled
+     */
+    public LatencyHistogram get(Hop hop) {
+        return ENABLED ? hops[hop.ordinal()] : null;
+    }
+
+    /**
+     * Prints p50, p99 and p99.9 of every hop of every switch
+     */
+    public static void printAll() {
+        if (all.isEmpty()) return;
+        StringBuilder out = new StringBuilder("Hop times in us (p50 / p99 / p99.9, frames):\n");
+        for (HopTimes times : all) {
+            out.append(String.format("  %-10s", times.name));
+            for (Hop hop : Hop.values()) {
+                LatencyHistogram histogram = times.hops[hop.ordinal()];
+                out.append(String.format(" %s %.1f / %.1f / %.1f (%d) ", hop.name().toLowerCase(),
+                        histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3,
+                        histogram.percentile(99.9) / 1e3, histogram.count()));
+            }
+            out.append('\n');
+        }
+        System.out.print(out);
+    }
+
+    /**
+     * Prints the report periodically. Runs on a daemon thread of its own, since a task on the shared
+     * executor would keep Main waiting for it forever.
+     */
+    private static void startReporter() {
+        Thread reporter = new Thread(() -> {
+            while (true) {
+                Threads.delay(REPORT_MILLIS);
+                printAll();
+            }
+        }, "hop-times");
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+}
@@ -0,0 +1,83 @@
+package starofstars;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <h3>LatencyHistogram class of Star of Stars project</h3>
+ * LatencyHistogram counts latencies in log-linear buckets, like HdrHistogram: values below 64 get a bucket each,
+ * larger values share 32 buckets per power of two, so every recorded value is known to within about 3%.
+ * Recording is one atomic increment and never allocates, so any number of threads may record at once
+ * while another one reads percentiles.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 64;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int SUB_BITS = 6;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKETS + (63 - SUB_BITS) * HALF);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one value
+     * @param value Latency, e.g. in nanoseconds. Negative values count as 0.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(bucket(value));
+        total.incrementAndGet();
+        long previous;
+        while (value > (previous = max.get()) && !max.compareAndSet(previous, value)) {
+            //Another thread raised the maximum first, check against its value
+        }
+    }
+
+    /**
+     * @return Amount of recorded values
+     */
+    public long count() {
+        return total.get();
+    }
+
+    /**
+     * @return Largest recorded value, or 0 if nothing was recorded
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Gets the value given percentage of the recorded values are at or below
+     * @param percentile Percentile, e.g. 99.9
+     * @return Highest value of the bucket holding the percentile, or 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long count = total.get();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highestValue(i), max.get());
+        }
+        return max.get();
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    private static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket - SUB_BUCKETS) / HALF + 1;
+        long sub = (bucket - SUB_BUCKETS) % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,163 @@
+package starofstars;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <h3>LineReader class of Star of Stars project</h3>
+ * LineReader streams the lines of a node's input file. It reads the file in fixed chunks and splits them on raw
+ * '\n' bytes (dropping a '\r' in front), without decoding characters or building Strings, so a file of any size
+ * is read with one buffer. Each line is returned as a view of that buffer, one byte per char, which
+ * FrameView.encode copies straight into a frame.
+ * <p>
+ * Lines longer than the buffer can't become frames anyway; they are cut at the buffer size and the rest is skipped.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class LineReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final Line line = new Line(buffer);
+    private int start = 0; //First unread byte
+    private int limit = 0; //End of the bytes read so far
+    private boolean eof = false;
+    private boolean skipping = false; //Skipping the rest of a line that was cut
+
+    /**
+     * Opens a file for reading
+     * @param path Input file path
+     * @throws IOException if the file can't be opened
+     */
+    public LineReader(String path) throws IOException {
+        this.channel = FileChannel.open(Path.of(path), StandardOpenOption.READ);
+    }
+
+    /**
+     * @return true if there is another line, reading more of the file if needed
+     * @throws IOException if there is a file read error
+     */
+    public boolean hasNextLine() throws IOException {
+        if (skipping) skipRest();
+        return start < limit || fill() && start < limit;
+    }
+
+    /**
+     * Reads the next line. The returned sequence is only valid until the next call, copy it to keep it.
+     * @return Line without its line break, or null at the end of the file
+     * @throws IOException if there is a file read error
+     */
+    public CharSequence nextLine() throws IOException {
+        if (!hasNextLine()) return null;
+        int searched = 0; //Bytes after start already searched, still valid after fill moves them
+        int newline;
+        while ((newline = indexOf((byte) '\n', start + searched)) < 0) {
+            searched = limit - start;
+            if (!fill()) break;
+        }
+
+        int end;
+        if (newline >= 0) {
+            end = newline;
+        } else {
+            //Last line without a line break, or a line filling the whole buffer
+            end = limit;
+            skipping = !eof;
+        }
+        int next = newline >= 0 ? newline + 1 : end;
+        if (end > start && buffer[end - 1] == '\r') end--;
+        line.set(start, end - start);
+        start = next;
+        return line;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Moves the unread bytes to the front of the buffer and reads more behind them
+     * @return false at the end of the file or if the buffer is full of unread bytes
+     */
+    private boolean fill() throws IOException {
+        if (eof) return false;
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, limit - start);
+            limit -= start;
+            start = 0;
+        }
+        if (limit == buffer.length) return false;
+        int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Drops bytes up to and including the next line break
+     */
+    private void skipRest() throws IOException {
+        while (true) {
+            int newline = indexOf((byte) '\n', start);
+            if (newline >= 0) {
+                start = newline + 1;
+                break;
+            }
+            start = limit;
+            if (!fill()) break;
+        }
+        skipping = false;
+    }
+
+    private int indexOf(byte b, int from) {
+        for (int i = from; i < limit; i++) {
+            if (buffer[i] == b) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Reusable view of one line in the buffer. Bytes map to chars one to one, like frames store them.
+     */
+    private static class Line implements CharSequence {
+        private final byte[] bytes;
+        private int offset;
+        private int length;
+
+        Line(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        void set(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(int index) {
+            return (char) (bytes[offset + index] & 0xFF);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        public String toString() {
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
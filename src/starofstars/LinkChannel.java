@@ -0,0 +1,55 @@
+package starofstars;
+
+/**
+ * <h3>LinkChannel interface of Star of Stars project</h3>
+ * A LinkChannel is the transport underneath a switch link (ClientLink, CASLink, CCSLink).
+ * It delivers whole incoming frames to a receiver and sends frames to the other end,
+ * independent of whether a thread per socket or a shared selector is doing the I/O.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public interface LinkChannel {
+    /**
+     * Callback for frames read from a channel
+     */
+    interface Receiver {
+        /**
+         * Called once for every complete frame, in the order they were received.
+         * The receiver owns the frame and must release or pass it on.
+         * @param frame Formatted data frame
+         */
+        void receive(FrameBuffer frame);
+
+        /**
+         * @return Histogram the channel records the egress time of written frames in, or null for none
+         */
+        default LatencyHistogram egressTimes() {
+            return null;
+        }
+
+        /**
+         * Called once the channel stopped delivering frames because the other end closed the connection
+         */
+        default void closed() {
+        }
+    }
+
+    /**
+     * Starts delivering incoming frames to the given receiver
+     * @param receiver Frame callback, usually the owning link
+     */
+    void start(Receiver receiver);
+
+    /**
+     * Sends a frame. Takes over the caller's reference and releases it once the frame is written.
+     * @param frame Formatted data frame
+     */
+    void write(FrameBuffer frame);
+
+    /**
+     * Closes the underlying connection and stops delivering frames
+     */
+    void close();
+}
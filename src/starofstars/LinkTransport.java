@@ -0,0 +1,35 @@
+package starofstars;
+
+import java.util.function.Consumer;
+
+/**
+ * <h3>LinkTransport interface of Star of Stars project</h3>
+ * A LinkTransport opens the LinkChannels of one switch or node: it listens for nodes or arm switches connecting
+ * to a switch and connects arm switches to the core and nodes to their arm. SocketTransport does this with a
+ * thread per link, NioTransport with sockets on a shared selector, MemoryTransport with in-memory rings inside the JVM.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public interface LinkTransport {
+    /**
+     * Listens for incoming connections on given port. The callback must call start() on every new channel.
+     * @param port Port to listen on
+     * @param acceptor Callback for new channels
+     */
+    void listen(int port, Consumer<LinkChannel> acceptor);
+
+    /**
+     * Connects to a listening switch
+     * @param host Host name
+     * @param port Port number
+     * @return Channel to the remote switch, or null if the connection failed
+     */
+    LinkChannel connect(String host, int port);
+
+    /**
+     * Stops accepting connections. A NioTransport also stops its selector thread and closes its channels.
+     */
+    void closeServer();
+}
@@ -0,0 +1,175 @@
+package starofstars;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * <h3>LoadProfile class of Star of Stars project</h3>
+ * LoadProfile describes the synthetic traffic nodes send with <code>sos.node.mode=load</code> instead of
+ * replaying their input files, and collects the results of the run in a LoadReport shared by every node.
+ * <p>
+ * Each node sends bursts of sos.load.burst frames, sos.load.rate frames per second in total (0 sends as fast
+ * as possible), for sos.load.durationMillis. Payload sizes are picked uniformly from sos.load.payload, given as
+ * "n" or "min-max" bytes. sos.load.local percent of frames go to a random node on the sender's own arm, the
+ * rest to a random node on another arm, except sos.load.hotspot percent which all go to sos.load.hotspotNode.
+ * With sos.load.loop=closed senders keep at most a window of frames in flight and retransmit lost ones like
+ * in file mode, with open they send on schedule whether or not frames are acknowledged.
+ * <p>
+ * Nodes wait for a shared start time set by Main once every node is connected, so no node sends
+ * (and no traffic is measured) before the whole network is up.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class LoadProfile {
+    public enum Loop {OPEN, CLOSED}
+
+    //Leaves room for the "x_y:" destination and sequence header within the largest v2 frame
+    private static final int MAX_PAYLOAD = FrameView.V2_MAX_DATA_LENGTH - 32;
+
+    private final int arms;
+    private final int nodes;
+    private final int rate;
+    private final int burst;
+    private final int minPayload;
+    private final int maxPayload;
+    private final int localPercent;
+    private final int hotspotPercent;
+    private final int hotspot;
+    private final Loop loop;
+    private final long durationMillis;
+    private final LoadReport report = new LoadReport();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private volatile long startNanos;
+
+    /**
+     * Creates a profile configured by the sos.load options for given network
+     * @param arms Amount of arm switches
+     * @param nodes Amount of nodes per arm switch
+     */
+    public LoadProfile(int arms, int nodes) {
+        this.arms = arms;
+        this.nodes = nodes;
+        this.rate = Math.max(0, Config.getInt("load.rate", 1000));
+        this.burst = Math.max(1, Config.getInt("load.burst", 1));
+        this.localPercent = clampPercent(Config.getInt("load.local", 50));
+        this.hotspotPercent = clampPercent(Config.getInt("load.hotspot", 0));
+        this.loop = Config.getEnum("load.loop", Loop.CLOSED);
+        this.durationMillis = Math.max(0, Config.getLong("load.durationMillis", 10000));
+
+        String payload = Config.getString("load.payload", "32");
+        int min = 32;
+        int max = 32;
+        try {
+            String[] range = payload.split("-", 2);
+            min = Integer.parseInt(range[0].trim());
+            max = range.length > 1 ? Integer.parseInt(range[1].trim()) : min;
+        } catch (NumberFormatException e) {
+            System.out.println("Config: Invalid payload size " + payload + ", using 32");
+            min = max = 32;
+        }
+        this.minPayload = Math.max(0, Math.min(min, MAX_PAYLOAD));
+        this.maxPayload = Math.max(this.minPayload, Math.min(max, MAX_PAYLOAD));
+
+        String hotspotNode = Config.getString("load.hotspotNode", "0_0");
+        int address = FrameView.address(0, 0);
+        try {
+            address = FrameView.destination(hotspotNode + ":");
+        } catch (NumberFormatException e) {
+            System.out.println("Config: Invalid hotspot node " + hotspotNode + ", using 0_0");
+        }
+        this.hotspot = address;
+    }
+
+    /**
+     * @return Whether senders wait for ACKs
+     */
+    public Loop getLoop() {
+        return loop;
+    }
+
+    /**
+     * @return Frames per burst
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * @return Time each node sends for in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationMillis * 1_000_000L;
+    }
+
+    /**
+     * @return Time between the bursts of one node in nanoseconds, 0 if unpaced
+     */
+    public long getBurstIntervalNanos() {
+        //The rate is shared by all nodes of the network
+        return rate == 0 ? 0 : 1_000_000_000L * burst * arms * nodes / rate;
+    }
+
+    /**
+     * @return Results shared by all nodes of the run
+     */
+    public LoadReport getReport() {
+        return report;
+    }
+
+    /**
+     * Sets the time all nodes start sending at and releases the nodes waiting for it
+     * @param delayMillis Time from now until the start, for switches to finish accepting their links
+     */
+    public void start(long delayMillis) {
+        startNanos = System.nanoTime() + delayMillis * 1_000_000L;
+        started.countDown();
+    }
+
+    /**
+     * Halts the calling node until the shared start time
+     * @return Start time as System.nanoTime()
+     */
+    public long awaitStart() {
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Threads.sleepUntil(startNanos);
+        return startNanos;
+    }
+
+    /**
+     * Picks the destination of the next frame
+     * @param arm Sender's arm
+     * @param node Sender's node
+     * @param random Sender's random generator
+     * @return Destination address, never the sender itself
+     */
+    public int destination(int arm, int node, Random random) {
+        int self = FrameView.address(arm, node);
+        if (hotspot != self && random.nextInt(100) < hotspotPercent) return hotspot;
+        if (arms == 1 || random.nextInt(100) < localPercent) {
+            //Any node of the same arm but the sender
+            int other = random.nextInt(nodes - 1);
+            return FrameView.address(arm, other >= node ? other + 1 : other);
+        }
+        int other = random.nextInt(arms - 1);
+        return FrameView.address(other >= arm ? other + 1 : other, random.nextInt(nodes));
+    }
+
+    /**
+     * Picks the payload size of the next frame
+     * @param random Sender's random generator
+     * @return Size in bytes
+     */
+    public int payloadSize(Random random) {
+        return minPayload + random.nextInt(maxPayload - minPayload + 1);
+    }
+
+    private static int clampPercent(int percent) {
+        return Math.max(0, Math.min(percent, 100));
+    }
+}
@@ -0,0 +1,97 @@
+package starofstars;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h3>LoadReport class of Star of Stars project</h3>
+ * LoadReport collects what the nodes of a load run sent and received: frame counts, retransmissions
+ * and the latency from sending a frame to its destination node accepting it. Frames carry their send time,
+ * which works since every node of a run shares the JVM's clock. Latencies of retransmitted frames include
+ * the time spent waiting for the retransmission. Latencies are also kept per destination arm, and
+ * HopTimes breaks them down further into the hops inside each switch.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class LoadReport {
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retransmitted = new LongAdder();
+    private final LongAdder givenUp = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final ConcurrentHashMap<Integer, LatencyHistogram> armLatency = new ConcurrentHashMap<>();
+    private final AtomicLong firstSent = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastDelivered = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Counts a newly sent frame
+     * @param payload Payload length in bytes
+     * @param time System.nanoTime() the frame was stamped with
+     */
+    public void sent(int payload, long time) {
+        sent.increment();
+        sentBytes.add(payload);
+        firstSent.accumulateAndGet(time, Math::min);
+    }
+
+    /**
+     * Counts a retransmitted frame
+     */
+    public void retransmitted() {
+        retransmitted.increment();
+    }
+
+    /**
+     * Counts frames a node gave up on
+     * @param frames Amount of frames
+     */
+    public void gaveUp(int frames) {
+        givenUp.add(frames);
+    }
+
+    /**
+     * Counts a frame its destination accepted for the first time
+     * @param stamp Send time carried by the frame
+     * @param arm Arm of the destination node
+     */
+    public void delivered(long stamp, int arm) {
+        long now = System.nanoTime();
+        delivered.increment();
+        latency.record(now - stamp);
+        armLatency.computeIfAbsent(arm, a -> new LatencyHistogram()).record(now - stamp);
+        lastDelivered.accumulateAndGet(now, Math::max);
+    }
+
+    /**
+     * Prints the results of the run
+     */
+    public void print() {
+        long frames = sent.sum();
+        long received = delivered.sum();
+        long lost = Math.max(0, frames - received);
+        double seconds = Math.max(1, lastDelivered.get() - firstSent.get()) / 1e9;
+
+        System.out.println("Load report:");
+        System.out.println("  Sent " + frames + " frames (" + sentBytes.sum() + " payload bytes), "
+                + retransmitted.sum() + " retransmissions, " + givenUp.sum() + " given up");
+        System.out.printf("  Delivered %d frames, lost or firewalled %d (%.2f%%)%n",
+                received, lost, frames == 0 ? 0.0 : 100.0 * lost / frames);
+        if (received == 0) return;
+        System.out.printf("  Throughput %.0f frames/s over %.2f s%n", received / seconds, seconds);
+        System.out.printf("  Latency us: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                latency.percentile(50) / 1e3, latency.percentile(90) / 1e3, latency.percentile(99) / 1e3,
+                latency.percentile(99.9) / 1e3, latency.max() / 1e3);
+        for (Map.Entry<Integer, LatencyHistogram> arm : new TreeMap<>(armLatency).entrySet()) {
+            LatencyHistogram histogram = arm.getValue();
+            System.out.printf("    to arm %d: p50 %.1f, p99 %.1f, p99.9 %.1f (%d frames)%n", arm.getKey(),
+                    histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3,
+                    histogram.percentile(99.9) / 1e3, histogram.count());
+        }
+    }
+}
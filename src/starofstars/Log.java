@@ -0,0 +1,227 @@
+package starofstars;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h3>Log class of Star of Stars project</h3>
+ * Log is the leveled, asynchronous logger of switches, links and nodes. A message below sos.log.level
+ * returns after one comparison against a constant, so the JIT drops it from the hot path entirely.
+ * Enabled messages don't format anything on the calling thread either: the format string and its arguments
+ * go into a preallocated slot of a lock-free ring, and a background appender thread fills in the
+ * <code>{}</code> placeholders and writes whole batches to stdout. Callers never block; when the ring is
+ * full the message is dropped and counted instead, and the appender reports how many were lost.
+ * <p>
+ * Arguments are formatted later on another thread, so they must not change after the call.
+ * Anything built from a pooled FrameBuffer has to be copied out first, e.g. into a String,
+ * behind a check of {@link #DEBUG} so it costs nothing while debug output is off.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public final class Log {
+    public enum Level {DEBUG, INFO, WARN, ERROR, OFF}
+
+    public static final Level LEVEL = Config.getEnum("log.level", Level.INFO);
+    //Constants the JIT folds, unlike comparisons of enum ordinals
+    public static final boolean DEBUG = LEVEL.compareTo(Level.DEBUG) <= 0;
+    private static final boolean INFO = LEVEL.compareTo(Level.INFO) <= 0;
+    private static final boolean WARN = LEVEL.compareTo(Level.WARN) <= 0;
+    private static final boolean ERROR = LEVEL.compareTo(Level.ERROR) <= 0;
+
+    private static final int CAPACITY = Integer.highestOneBit(Math.max(2, Config.getInt("log.capacity", 65536) - 1)) << 1;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long START = System.nanoTime();
+
+    private static final Event[] events = new Event[CAPACITY];
+    private static final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong tail = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static volatile long head = 0; //Only written by the appender
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            events[i] = new Event();
+            sequences.set(i, i);
+        }
+        if (LEVEL != Level.OFF) {
+            Thread appender = new Thread(Log::append, "log-appender");
+            appender.setDaemon(true);
+            appender.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(Log::flush));
+        }
+    }
+
+    private Log() {
+    }
+
+    /*
+     * One method per argument count instead of varargs, so a disabled call doesn't even allocate an array.
+     * Placeholders "{}" in the format are replaced by the arguments in order.
+     */
+
+    public static void debug(String format) {
+        if (DEBUG) log(Level.DEBUG, format, null, null, null);
+    }
+
+    public static void debug(String format, Object a) {
+        if (DEBUG) log(Level.DEBUG, format, a, null, null);
+    }
+
+    public static void debug(String format, Object a, Object b) {
+        if (DEBUG) log(Level.DEBUG, format, a, b, null);
+    }
+
+    public static void debug(String format, Object a, Object b, Object c) {
+        if (DEBUG) log(Level.DEBUG, format, a, b, c);
+    }
+
+    public static void info(String format) {
+        if (INFO) log(Level.INFO, format, null, null, null);
+    }
+
+    public static void info(String format, Object a) {
+        if (INFO) log(Level.INFO, format, a, null, null);
+    }
+
+    public static void info(String format, Object a, Object b) {
+        if (INFO) log(Level.INFO, format, a, b, null);
+    }
+
+    public static void info(String format, Object a, Object b, Object c) {
+        if (INFO) log(Level.INFO, format, a, b, c);
+    }
+
+    public static void warn(String format) {
+        if (WARN) log(Level.WARN, format, null, null, null);
+    }
+
+    public static void warn(String format, Object a) {
+        if (WARN) log(Level.WARN, format, a, null, null);
+    }
+
+    public static void warn(String format, Object a, Object b) {
+        if (WARN) log(Level.WARN, format, a, b, null);
+    }
+
+    public static void error(String format) {
+        if (ERROR) log(Level.ERROR, format, null, null, null);
+    }
+
+    public static void error(String format, Object a) {
+        if (ERROR) log(Level.ERROR, format, a, null, null);
+    }
+
+    public static void error(String format, Object a, Object b) {
+        if (ERROR) log(Level.ERROR, format, a, b, null);
+    }
+
+    /**
+     * Waits until the appender wrote every message logged before the call, e.g. before printing a report
+     * that must not be interleaved with log output. Gives up after a second if the appender is stuck.
+     */
+    public static void flush() {
+        if (LEVEL == Level.OFF) return;
+        long target = tail.get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (head < target && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(IDLE_NANOS / 10);
+        }
+    }
+
+    /**
+     * Claims a slot and fills it in, or drops the message if the ring is full
+     */
+    private static void log(Level level, String format, Object a, Object b, Object c) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & (CAPACITY - 1);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    Event event = events[index];
+                    event.time = System.nanoTime();
+                    event.level = level;
+                    event.format = format;
+                    event.a = a;
+                    event.b = b;
+                    event.c = c;
+                    sequences.set(index, position + 1); //Publishes the event to the appender
+                    return;
+                }
+            } else if (lag < 0) {
+                dropped.incrementAndGet();
+                return;
+            }
+            //Another thread took the position first, try the next one
+        }
+    }
+
+    /**
+     * Appender loop. Formats everything published so far into one batch, writes it, then naps briefly.
+     * Napping instead of being woken keeps producers from ever having to unpark anything.
+     */
+    private static void append() {
+        StringBuilder batch = new StringBuilder(64 * 1024);
+        long reportedDrops = 0;
+        while (true) {
+            long position = head;
+            while (true) {
+                int index = (int) position & (CAPACITY - 1);
+                if (sequences.get(index) != position + 1) break;
+                events[index].formatTo(batch);
+                events[index].clear();
+                sequences.set(index, position + CAPACITY); //Frees the slot for the next lap
+                position++;
+                if (batch.length() >= 60 * 1024) break;
+            }
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                batch.append("WARN  Log: ").append(drops - reportedDrops).append(" messages dropped, ring full\n");
+                reportedDrops = drops;
+            }
+            if (batch.length() > 0) {
+                //Looked up every time, so redirecting stdout also redirects the log
+                System.out.print(batch);
+                System.out.flush();
+                batch.setLength(0);
+            }
+            boolean caughtUp = position == tail.get();
+            head = position;
+            if (caughtUp) LockSupport.parkNanos(IDLE_NANOS);
+        }
+    }
+
+    /**
+     * One pending message. Its fields are only touched by the thread that claimed the slot until it is
+     * published, then by the appender until the slot is freed.
+     */
+    private static class Event {
+        long time;
+        Level level;
+        String format;
+        Object a, b, c;
+
+        void formatTo(StringBuilder out) {
+            long millis = (time - START) / 1_000_000;
+            out.append(String.format("%7d %-5s ", millis, level));
+            Object[] args = {a, b, c};
+            int arg = 0;
+            int from = 0;
+            int at;
+            while ((at = format.indexOf("{}", from)) >= 0 && arg < args.length) {
+                out.append(format, from, at).append(args[arg++]);
+                from = at + 2;
+            }
+            out.append(format, from, format.length()).append('\n');
+        }
+
+        void clear() {
+            format = null;
+            a = b = c = null;
+        }
+    }
+}
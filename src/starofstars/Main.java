@@ -0,0 +1,66 @@
+package starofstars;
+
+/**
+ * <h3>Main class of Star of Stars project</h3>
+ * Creates core switch as well as a number of arm switches and nodes per arm switch determined by command line args.
+ * Any further args of the form <code>--name=value</code> set the matching <code>sos.name</code> option,
+ * e.g. <code>--transport=nio</code>.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class Main {
+    //Arm switches listen on port 1000 + ID, which must stay below the core switch's port 5000
+    private static final int MAX_ARMS = 4000;
+
+    public static void main(String[] args) {
+        int nodeAmt = Integer.parseInt(args[1]);
+        int armSwitchAmt = Integer.parseInt(args[0]);
+
+        for (int i = 2; i < args.length; i++) {
+            if (!args[i].startsWith("--") || !args[i].contains("=")) {
+                System.out.println("Invalid option \"" + args[i] + "\", expected --name=value");
+                return;
+            }
+            String[] option = args[i].substring(2).split("=", 2);
+            System.setProperty("sos." + option[0], option[1]);
+        }
+
+        if (nodeAmt < 2 || nodeAmt > FrameView.MAX_NODE + 1) {
+            System.out.println("Node per arm amount (" + nodeAmt + ") must be between 2 and " + (FrameView.MAX_NODE + 1));
+            return;
+        }
+
+        if (armSwitchAmt < 1 || armSwitchAmt > MAX_ARMS) {
+            System.out.println("Arm switch amount (" + armSwitchAmt + ") must be between 1 and " + MAX_ARMS);
+            return;
+        }
+
+        //Synthetic traffic instead of the input files
+        LoadProfile load = null;
+        if (Config.getEnum("node.mode", Node.Mode.FILE) == Node.Mode.LOAD) {
+            load = new LoadProfile(armSwitchAmt, nodeAmt);
+        }
+
+        //Central Switch
+        new CoreSwitch();
+
+        //Arm Switches + Nodes
+        for (int i = 0; i < armSwitchAmt; i++) {
+            new ArmSwitch(i);
+            for (int j = 0; j < nodeAmt; j++) {
+                new Node(i, j, load);
+            }
+        }
+        //Load nodes are all connected now, start them together once the last links are accepted
+        if (load != null) load.start(2000);
+
+        //Switch, link and node threads come from a shared executor, wait for them to finish
+        Threads.awaitCompletion();
+        //Reports go straight to stdout, after whatever the switches and nodes logged
+        Log.flush();
+        if (load != null) load.getReport().print();
+        Metrics.dumpAll();
+    }
+}
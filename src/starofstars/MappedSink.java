@@ -0,0 +1,90 @@
+package starofstars;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <h3>MappedSink class of Star of Stars project</h3>
+ * MappedSink appends lines into a memory-mapped region of its file. A write is a copy into the page cache with
+ * no system call, one ISO-8859-1 byte per character like frames carry them. The kernel writes the pages back whenever it chooses, so lines usually outlive a JVM crash,
+ * but nothing is guaranteed: without sos.node.fsync flush() does nothing, and only with it does GroupCommit
+ * force the written lines to disk.
+ * <p>
+ * The file grows a 1 MiB region at a time and is only truncated to the written length on close, so a file
+ * left behind by a crashed process ends in up to 1 MiB of zero bytes after its last line.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class MappedSink implements OutputSink {
+    private static final int REGION_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private MappedByteBuffer region;
+    private long regionStart = 0;
+
+    /**
+     * Creates the file, maps its first region and registers the sink for group commits if fsync is on
+     * @param path Output file path
+     * @throws IOException if the file can't be created or mapped
+     */
+    public MappedSink(String path) throws IOException {
+        this.channel = FileChannel.open(Path.of(path), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.region = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_SIZE);
+        if (GroupCommit.FSYNC && GroupCommit.FLUSH_MILLIS > 0) GroupCommit.register(this);
+    }
+
+    public void write(CharSequence line) throws IOException {
+        lock.lock();
+        try {
+            int length = line.length();
+            for (int i = 0; i < length; i++) {
+                if (!region.hasRemaining()) nextRegion();
+                region.put(FrameView.latin1(line.charAt(i)));
+            }
+            if (!region.hasRemaining()) nextRegion();
+            region.put((byte) '\n');
+        } finally {
+            lock.unlock();
+        }
+        if (GroupCommit.FSYNC && GroupCommit.FLUSH_MILLIS == 0) flush();
+    }
+
+    public void flush() throws IOException {
+        if (!GroupCommit.FSYNC) return; //Already in the page cache
+        lock.lock();
+        try {
+            region.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() throws IOException {
+        GroupCommit.unregister(this);
+        lock.lock();
+        try {
+            if (GroupCommit.FSYNC) region.force();
+            channel.truncate(regionStart + region.position());
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Maps the region after the current one, which must be full. Caller must hold the lock.
+     */
+    private void nextRegion() throws IOException {
+        if (GroupCommit.FSYNC) region.force();
+        regionStart += REGION_SIZE;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+    }
+}
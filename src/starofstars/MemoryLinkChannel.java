@@ -0,0 +1,126 @@
+package starofstars;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h3>MemoryLinkChannel class of Star of Stars project</h3>
+ * MemoryLinkChannel is one end of an in-memory link between two parties in the same JVM. Writing a frame
+ * hands its buffer straight to the other end's FrameRing, so frames are never copied or serialized.
+ * A started end delivers frames to its receiver on its own thread, like a socket reader thread;
+ * code that doesn't start its end, like the forwarding benchmark, reads frames with {@link #read()} instead.
+ * When the other end's ring is full, the writer waits for room, like the socket transport's BLOCK egress queue, so
+ * links never lose frames and load tests only drop where the switches' FrameQueue policy says. The waits can't go
+ * around in a circle: rings are drained by nodes or by link threads that only offer to FrameQueues, which don't wait
+ * unless sos.queue.policy is BLOCK.
+ * Closing either end closes the link.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class MemoryLinkChannel implements LinkChannel, Runnable {
+    private static final long FULL_BACKOFF_NANOS = 10_000;
+
+    private final FrameRing inbound = new FrameRing(FrameQueue.DEFAULT_CAPACITY);
+    private MemoryLinkChannel peer;
+    private Receiver receiver;
+    private LatencyHistogram egressTimes;
+    private volatile boolean closed = false;
+
+    private MemoryLinkChannel() {
+    }
+
+    /**
+     * Creates both ends of a new link
+     * @return The two ends, each writing to the other
+     */
+    public static MemoryLinkChannel[] pair() {
+        MemoryLinkChannel a = new MemoryLinkChannel();
+        MemoryLinkChannel b = new MemoryLinkChannel();
+        a.peer = b;
+        b.peer = a;
+        return new MemoryLinkChannel[]{a, b};
+    }
+
+    /**
+     * Starts the thread delivering incoming frames to the receiver
+     * @param receiver Frame callback
+     */
+    public void start(Receiver receiver) {
+        this.receiver = receiver;
+        this.egressTimes = receiver.egressTimes();
+        Threads.start(this);
+    }
+
+    /**
+     * Delivery loop
+     */
+    public void run() {
+        FrameBuffer frame;
+        while ((frame = read()) != null) {
+            receiver.receive(frame);
+        }
+        receiver.closed();
+    }
+
+    /**
+     * Blocks until the next frame arrives. Only one thread may read an end.
+     * @return Frame owned by the caller, or null once the link is closed and every frame sent before was read
+     */
+    public FrameBuffer read() {
+        inbound.setConsumer(Thread.currentThread());
+        while (true) {
+            FrameBuffer frame = inbound.poll();
+            if (frame != null) return frame;
+            if (closed) return inbound.poll();
+            //A close from here on unparks this thread, so it can't be missed
+            frame = inbound.take();
+            if (frame != null) return frame;
+        }
+    }
+
+    /**
+     * Waits at most given time for the next frame. Only one thread may read an end.
+     * @param timeoutNanos Longest time to wait
+     * @return Frame owned by the caller, or null if none arrived in time or the link is closed and every frame was read
+     */
+    public FrameBuffer read(long timeoutNanos) {
+        inbound.setConsumer(Thread.currentThread());
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (true) {
+            FrameBuffer frame = inbound.poll();
+            if (frame != null) return frame;
+            if (closed) return inbound.poll();
+            long left = deadline - System.nanoTime();
+            if (left <= 0) return null;
+            frame = inbound.take(left);
+            if (frame != null) return frame;
+        }
+    }
+
+    /**
+     * Hands given frame to the other end, waiting for room if its ring is full
+     * @param frame Frame to send, released if the link is closed
+     */
+    public void write(FrameBuffer frame) {
+        long start = HopTimes.now();
+        while (!closed) {
+            if (peer.inbound.offer(frame)) {
+                if (egressTimes != null) egressTimes.record(System.nanoTime() - start);
+                return;
+            }
+            LockSupport.parkNanos(this, FULL_BACKOFF_NANOS);
+        }
+        frame.release();
+    }
+
+    /**
+     * Closes both ends. Frames already sent can still be read.
+     */
+    public void close() {
+        closed = true;
+        peer.closed = true;
+        inbound.wake();
+        peer.inbound.wake();
+    }
+}
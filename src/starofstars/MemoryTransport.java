@@ -0,0 +1,68 @@
+package starofstars;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * <h3>MemoryTransport class of Star of Stars project</h3>
+ * MemoryTransport connects switches and nodes in the same JVM with MemoryLinkChannels instead of sockets.
+ * Ports are only keys in a JVM wide table of listening switches, so no kernel sockets are opened and
+ * runs don't compete with other processes for ports. Connecting is synchronous: the listener's
+ * callback gets its end of the new link before connect returns.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class MemoryTransport implements LinkTransport {
+    private static final ConcurrentHashMap<Integer, Consumer<LinkChannel>> listeners = new ConcurrentHashMap<>();
+
+    private final String name;
+    private int port = -1;
+
+    /**
+     * Creates a transport for one switch or node
+     * @param name Owner name used in log output, e.g. "Cas 0"
+     */
+    public MemoryTransport(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Registers given callback for links connecting to the port
+     * @param port Port to listen on
+     * @param acceptor Callback for new channels
+     */
+    public void listen(int port, Consumer<LinkChannel> acceptor) {
+        if (listeners.putIfAbsent(port, acceptor) != null) {
+            Log.error("{}: Error listening on port {}, already in use", name, port);
+            return;
+        }
+        this.port = port;
+        Log.info("{} listening on memory port {}", name, port);
+    }
+
+    /**
+     * Connects to a listening switch
+     * @param host Ignored, every memory port is local
+     * @param port Port number
+     * @return This side's end of the link, or null if nothing listens on the port
+     */
+    public MemoryLinkChannel connect(String host, int port) {
+        Consumer<LinkChannel> acceptor = listeners.get(port);
+        if (acceptor == null) {
+            Log.error("{}: Error connecting to memory port {}", name, port);
+            return null;
+        }
+        MemoryLinkChannel[] link = MemoryLinkChannel.pair();
+        acceptor.accept(link[1]);
+        return link[0];
+    }
+
+    /**
+     * Stops accepting links, freeing the port
+     */
+    public void closeServer() {
+        if (port >= 0) listeners.remove(port);
+    }
+}
@@ -0,0 +1,109 @@
+package starofstars;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h3>Metrics class of Star of Stars project</h3>
+ * Metrics is the registry of every switch's SwitchMetrics, plus counters nodes share. Everything is registered
+ * with the platform MBean server, so a running simulation can be watched with jconsole or any JMX client,
+ * and the <code>dump</code> operation prints a snapshot on demand. Snapshots are also printed at shutdown and,
+ * if sos.metrics.dumpMillis is set, periodically while the simulation runs.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public final class Metrics implements MetricsMBean {
+    private static final long DUMP_MILLIS = Config.getLong("metrics.dumpMillis", 0);
+    private static final List<SwitchMetrics> switches = new CopyOnWriteArrayList<>();
+    private static final LongAdder retransmits = new LongAdder();
+    private static final LongAdder givenUp = new LongAdder();
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    private Metrics() {
+    }
+
+    /**
+     * Adds a switch to the registry and to JMX. The first registration also registers the node counters
+     * and starts periodic dumps.
+     * @param metrics Metrics of a new switch
+     */
+    static void register(SwitchMetrics metrics) {
+        switches.add(metrics);
+        if (started.compareAndSet(false, true)) {
+            registerMBean(new Metrics(), "starofstars:type=Metrics");
+            if (DUMP_MILLIS > 0) startDumper();
+        }
+        registerMBean(metrics, "starofstars:type=Switch,name=" + ObjectName.quote(metrics.getName()));
+    }
+
+    /**
+     * Counts a frame a node retransmitted
+     */
+    public static void retransmitted() {
+        retransmits.increment();
+    }
+
+    /**
+     * Counts frames a node gave up on
+     * @param frames Amount of frames
+     */
+    public static void gaveUp(int frames) {
+        givenUp.add(frames);
+    }
+
+    /**
+     * Prints a snapshot of every counter, and the hop times if sos.timing is enabled
+     */
+    public static void dumpAll() {
+        StringBuilder out = new StringBuilder("Metrics:\n");
+        for (SwitchMetrics metrics : switches) {
+            out.append(metrics.snapshot());
+        }
+        out.append("  Nodes      retransmits ").append(retransmits.sum()).append(", given up ").append(givenUp.sum()).append('\n');
+        System.out.print(out);
+        HopTimes.printAll();
+    }
+
+    public long getRetransmits() {
+        return retransmits.sum();
+    }
+
+    public long getGivenUp() {
+        return givenUp.sum();
+    }
+
+    public void dump() {
+        dumpAll();
+    }
+
+    private static void registerMBean(Object mbean, String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, new ObjectName(name));
+        } catch (JMException e) {
+            System.out.println("Metrics: Error registering " + name + " with JMX");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Dumps periodically. Runs on a daemon thread of its own, since a task on the shared
+     * executor would keep Main waiting for it forever.
+     */
+    private static void startDumper() {
+        Thread dumper = new Thread(() -> {
+            while (true) {
+                Threads.delay(DUMP_MILLIS);
+                dumpAll();
+            }
+        }, "metrics");
+        dumper.setDaemon(true);
+        dumper.start();
+    }
+}
@@ -0,0 +1,27 @@
+package starofstars;
+
+/**
+ * <h3>MetricsMBean interface of Star of Stars project</h3>
+ * JMX view of the whole run, registered as <code>starofstars:type=Metrics</code>.
+ * Per-switch counters are registered separately, see SwitchMetricsMBean.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public interface MetricsMBean {
+    /**
+     * @return Frames nodes retransmitted
+     */
+    long getRetransmits();
+
+    /**
+     * @return Frames nodes gave up on after their last retransmission
+     */
+    long getGivenUp();
+
+    /**
+     * Prints a snapshot of every counter, and the hop times if sos.timing is enabled
+     */
+    void dump();
+}
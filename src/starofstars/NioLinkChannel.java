@@ -0,0 +1,203 @@
+package starofstars;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <h3>NioLinkChannel class of Star of Stars project</h3>
+ * NioLinkChannel is a non-blocking LinkChannel driven by a NioTransport selector.
+ * Incoming bytes collect in a direct buffer and are split into frames using the header SIZE field.
+ * Outgoing frames are copied into a direct buffer and written straight away; whatever the socket
+ * can't take yet is left for the selector thread to flush once the channel is writable again.
+ * While such a flush is pending, new frames are only appended, so the selector sends them together
+ * in one gathered write.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class NioLinkChannel implements LinkChannel {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final NioTransport transport;
+    private final SocketChannel channel;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition drained = writeLock.newCondition();
+    private SelectionKey key;
+    private boolean writePending = false;
+    private Receiver receiver;
+    private LatencyHistogram egressTimes;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new channel on top of a connected socket channel
+     * @param transport Selector loop the channel will be registered with
+     * @param channel Connected socket channel
+     */
+    NioLinkChannel(NioTransport transport, SocketChannel channel) throws IOException {
+        this.transport = transport;
+        this.channel = channel;
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+    }
+
+    /**
+     * Registers the channel with the selector so incoming frames are delivered to the receiver
+     * @param receiver Frame callback
+     */
+    public void start(Receiver receiver) {
+        this.receiver = receiver;
+        this.egressTimes = receiver.egressTimes();
+        transport.register(this);
+    }
+
+    /**
+     * Copies given frame into the write buffer, releases it and tries to send it right away unless the
+     * selector already has a flush pending and less than sos.link.flushBytes are buffered.
+     * Waits for the selector to drain the buffer if it is full.
+     * @param frame Frame to send
+     */
+    public void write(FrameBuffer frame) {
+        long start = HopTimes.now();
+        int length = frame.length();
+        writeLock.lock();
+        try {
+            while (writeBuffer.remaining() < length) {
+                if (closed) return;
+                flush();
+                if (writeBuffer.remaining() < length) drained.await(10, TimeUnit.MILLISECONDS);
+            }
+            writeBuffer.put(frame.array(), 0, length);
+            if (!writePending || writeBuffer.position() >= SocketLinkChannel.FLUSH_BYTES) flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            writeLock.unlock();
+            frame.release();
+        }
+        //The selector may still be sending, egress time ends once the frame is in the write buffer
+        if (egressTimes != null) egressTimes.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Closes the socket channel, which also cancels its selector key
+     */
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return Underlying socket channel
+     */
+    SocketChannel socketChannel() {
+        return channel;
+    }
+
+    /**
+     * Called on the selector thread once the channel is registered
+     * @param key Selection key of this channel
+     */
+    void registered(SelectionKey key) {
+        writeLock.lock();
+        try {
+            this.key = key;
+            if (writeBuffer.position() > 0) key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reads what is available and hands every complete frame to the receiver. Called on the selector thread.
+     */
+    void onReadable() {
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            close();
+            receiver.closed();
+            return;
+        }
+
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+            int position = readBuffer.position();
+            int header = FrameView.headerLength(readBuffer.get(position));
+            if (readBuffer.remaining() < header) break;
+            int size = header == FrameView.HEADER_LENGTH
+                    ? readBuffer.get(position + 3) & 0xFF
+                    : readBuffer.getShort(position + 10) & 0xFFFF;
+            if (size > FrameView.V2_MAX_DATA_LENGTH) {
+                Log.warn("Link: Frame too long ({} bytes), closing link", size);
+                close();
+                receiver.closed();
+                return;
+            }
+            int length = header + size;
+            if (readBuffer.remaining() < length) break;
+
+            FrameBuffer frame = FrameBufferPool.shared().acquire();
+            readBuffer.get(frame.array(), 0, length);
+            receiver.receive(frame);
+        }
+        readBuffer.compact();
+    }
+
+    /**
+     * Flushes buffered frames once the socket can take more data. Called on the selector thread.
+     */
+    void onWritable() {
+        writeLock.lock();
+        try {
+            flush();
+            drained.signalAll();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes as much of the write buffer as the socket accepts without blocking, and asks the selector
+     * to finish the rest if anything is left. Caller must hold the write lock.
+     */
+    private void flush() {
+        writeBuffer.flip();
+        try {
+            channel.write(writeBuffer);
+        } catch (IOException e) {
+            if (!closed) e.printStackTrace();
+            close();
+        }
+        writeBuffer.compact();
+
+        boolean pending = writeBuffer.position() > 0;
+        writePending = pending && key != null;
+        if (key == null) return;
+        int ops = pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        try {
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+                if (pending) transport.wakeup();
+            }
+        } catch (CancelledKeyException e) {
+            //Other end closed the connection, nothing left to flush to
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package starofstars;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * <h3>NioTransport class of Star of Stars project</h3>
+ * NioTransport runs all links of one switch or node on a single selector thread, replacing the
+ * acceptor thread and the reader and writer threads per link used by SocketTransport. Accepted and connected sockets become NioLinkChannels.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class NioTransport implements LinkTransport, Runnable {
+    private static final ThreadLocal<Boolean> selectorThread = ThreadLocal.withInitial(() -> false);
+
+    private final String name;
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private Selector selector;
+    private volatile Thread thread;
+    private volatile boolean isRunning = true;
+
+    /**
+     * Opens a selector and starts the selector thread
+     * @param name Owner name used in log output, e.g. "Cas 0"
+     */
+    public NioTransport(String name) {
+        this.name = name;
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            Log.error("{}: Error opening selector", name);
+            e.printStackTrace();
+            return;
+        }
+        Threads.start(this);
+    }
+
+    /**
+     * Listens for incoming connections on given port. Runs the callback on the selector thread
+     * for every accepted connection, which must call start() on the channel to receive frames.
+     * @param port Port to listen on
+     * @param acceptor Callback for new channels
+     */
+    public void listen(int port, Consumer<LinkChannel> acceptor) {
+        try {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            Log.info("{} listening on port {}", name, port);
+            execute(() -> {
+                try {
+                    server.register(selector, SelectionKey.OP_ACCEPT, acceptor);
+                } catch (ClosedChannelException e) {
+                    e.printStackTrace();
+                }
+            });
+        } catch (IOException e) {
+            Log.error("{}: Error listening on port {}", name, port);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Connects to a listening switch. Blocks until connected.
+     * @param host Host name
+     * @param port Port number
+     * @return Channel to the remote switch, or null if the connection failed
+     */
+    public LinkChannel connect(String host, int port) {
+        try {
+            return new NioLinkChannel(this, SocketChannel.open(new InetSocketAddress(host, port)));
+        } catch (IOException e) {
+            Log.error("{}: Error connecting to port {}", name, port);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Registers a started channel for reads on the selector
+     * @param channel Channel to register
+     */
+    void register(NioLinkChannel channel) {
+        execute(() -> {
+            try {
+                channel.registered(channel.socketChannel().register(selector, SelectionKey.OP_READ, channel));
+            } catch (ClosedChannelException e) {
+                //Channel was closed before it got registered, nothing to read
+            }
+        });
+    }
+
+    /**
+     * @return true if the calling thread runs a selector loop, which must never wait for other threads
+     */
+    static boolean isSelectorThread() {
+        return selectorThread.get();
+    }
+
+    /**
+     * Interrupts a blocking select so changed interest sets take effect
+     */
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    /**
+     * Stops the selector thread and closes the server socket and all channels
+     */
+    public void closeServer() {
+        isRunning = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Selector loop
+     */
+    public void run() {
+        this.thread = Thread.currentThread();
+        selectorThread.set(true);
+        try {
+            while (isRunning) {
+                selector.select();
+
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept(key);
+                    } else {
+                        NioLinkChannel channel = (NioLinkChannel) key.attachment();
+                        if (key.isReadable()) channel.onReadable();
+                        if (key.isValid() && key.isWritable()) channel.onWritable();
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+            Log.info("{}: Selector closed.", name);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            //Executor threads are reused for other tasks
+            selectorThread.remove();
+        }
+    }
+
+    /**
+     * Accepts a pending connection and hands it to the listen callback
+     * @param key Server socket key
+     */
+    @SuppressWarnings("unchecked")
+    private void accept(SelectionKey key) throws IOException {
+        SocketChannel socketChannel = ((ServerSocketChannel) key.channel()).accept();
+        if (socketChannel == null) return;
+
+        Log.info("{} accepted new client", name);
+        ((Consumer<LinkChannel>) key.attachment()).accept(new NioLinkChannel(this, socketChannel));
+    }
+
+    /**
+     * Runs a task on the selector thread, immediately if already on it
+     * @param task Selector operation
+     */
+    private void execute(Runnable task) {
+        if (Thread.currentThread() == thread) {
+            task.run();
+        } else {
+            tasks.add(task);
+            selector.wakeup();
+        }
+    }
+}
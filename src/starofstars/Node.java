@@ -0,0 +1,458 @@
+package starofstars;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * <h3>Node class of Star of Stars project</h3>
+ * Nodes transmit data from their input text file and output received data to their output text file.
+ * Received data goes through the OutputSink selected by sos.node.output.
+ * Nodes connect to their arm switch through the configured transport like switches connect to the core,
+ * and handle received frames on the thread of their LinkChannel.
+ * With <code>sos.node.mode=load</code> they send synthetic traffic described by a LoadProfile instead,
+ * with <code>sos.node.mode=replay</code> the pre-encoded frames of a trace compiled by TraceCompiler.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class Node implements LinkChannel.Receiver {
+    public enum Mode {FILE, LOAD, REPLAY}
+
+    private static final Mode MODE = Config.getEnum("node.mode", Mode.FILE);
+
+    //Load frames start their message with this, followed by the send time
+    private static final char STAMP = '#';
+
+    private final int casID;
+    private final int nodeID;
+    private final String fullSrcID;
+    private final String name; //"Node x_y", used in log messages
+    private LinkTransport transport;
+    private LinkChannel channel;
+    private OutputSink writer;
+    private boolean finished = false; //Only touched by the channel's thread
+    private final StringBuilder receivedLine = new StringBuilder(); //Line being written to the sink, reused by the channel's thread
+    private final TransmitWindow window = new TransmitWindow();
+    private final ReceiveWindow receiveWindow = new ReceiveWindow();
+    private final LoadProfile load;
+
+    /**
+     * Creates a node with given AS and Node IDs and connects it to the network.
+     * Also creates a thread with a NodeListener object to call the transmit method.
+     * @param casID Arm Switch ID
+     * @param nodeID Node ID
+     */
+    public Node(int casID, int nodeID) {
+        this(casID, nodeID, null);
+    }
+
+    /**
+     * Creates a node with given AS and Node IDs and connects it to the network.
+     * @param casID Arm Switch ID
+     * @param nodeID Node ID
+     * @param load Traffic to send instead of the input file, or null for file mode
+     */
+    public Node(int casID, int nodeID, LoadProfile load) {
+        this.casID = casID;
+        this.load = load;
+        this.nodeID = nodeID;
+        fullSrcID = casID + "_" + nodeID;
+        name = "Node " + fullSrcID;
+
+        //Arm switches are listening once their constructor returns, so there is nothing to wait for
+        this.transport = Transport.configured().open(name);
+        Log.info("{}: Connecting to port {}", name, 1000 + this.casID);
+        this.channel = this.transport.connect("localhost", 1000 + this.casID);
+        if (this.channel == null) {
+            this.transport.closeServer();
+            return;
+        }
+        try {
+            this.writer = OutputSink.Kind.configured().open("node" + this.casID + "_" + this.nodeID + "output.txt");
+        } catch (IOException e) {
+            Log.error("{}: Error opening output file", name);
+            e.printStackTrace();
+            this.channel.close();
+            this.transport.closeServer();
+            return;
+        }
+
+        this.channel.start(this);
+        Threads.start(new NodeListener(NodeListener.ListenerType.TRANSMITTER, this));
+    }
+
+    /**
+     * Handles a frame received from the arm switch. Called on the channel's thread, one frame at a time.
+     * @param received Frame, released before returning
+     */
+    public void receive(FrameBuffer received) {
+        if (finished) {
+            received.release();
+            return;
+        }
+        try {
+            handle(received);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Called on the channel's thread when the switch closed the connection before the end flag arrived
+     */
+    public void closed() {
+        if (finished) return;
+        Log.warn("{}: Connection closed by switch", name);
+        finish();
+    }
+
+    /**
+     * Writes a received message to the output file and ACKs it, or passes a received ACK to the transmit window.
+     * Fields are read straight from the pooled buffer, nothing is decoded into objects.
+     * @param frame Frame, released before returning
+     * @throws IOException if there is a file write error.
+     */
+    private void handle(FrameBuffer frame) throws IOException {
+        try {
+            int ack = frame.ack();
+            int seq = frame.hasSequence() ? frame.seq() : -1;
+            if (ack == 123) {
+                Log.debug("End signal received");
+            }
+
+            //If CRC is wrong, ask the source for a retransmission
+            if (!frame.verifyCrc()) {
+                if (seq >= 0) sendAck(frame.src(), 1, seq, frame.flowSeq());
+                return;
+            }
+
+            boolean addressedHere = frame.dst() == FrameView.address(this.casID, this.nodeID);
+            //Check if frame is an ACK response (or ACK type value that we've hijacked)
+            if (!(ack == 111 || ack == 0b00000100)) {
+                switch (ack) {
+                    case 1:
+                    case 2:
+                    case 3:
+                        //Switches may flood ACKs for nodes they haven't learned yet
+                        if (addressedHere && window.acknowledge(seq, ack) && Log.DEBUG) {
+                            Log.debug("{}: Received ACK {} for frame {}", name, ack, seq);
+                        }
+                        break;
+                    case 123:
+                        Log.info("{}: End flag received", name);
+                        finish();
+                        break;
+                    default:
+                        Log.warn("{}: Invalid ACK response received: {}", name, ack);
+                }
+            } else {
+                //Otherwise, normal frame, write to file unless it is a retransmitted duplicate
+                if (!addressedHere || seq < 0 || receiveWindow.accept(frame.src(), frame.flowSeq())) {
+                    //Line is "x_y:message" with the source address, the message bytes read back as ISO-8859-1
+                    StringBuilder line = receivedLine;
+                    line.setLength(0);
+                    line.append(frame.srcArm()).append('_').append(frame.srcNode()).append(':');
+                    byte[] bytes = frame.array();
+                    int end = frame.messageOffset() + frame.messageLength();
+                    for (int i = frame.messageOffset(); i < end; i++) {
+                        line.append((char) (bytes[i] & 0xFF));
+                    }
+                    if (Log.DEBUG) Log.debug("{}: Writing to file: {}", name, line.toString());
+                    writer.write(line);
+                    if (load != null && addressedHere) delivered(frame);
+                } else {
+                    if (Log.DEBUG) Log.debug("{}: Dropping duplicate frame {}", name, seq);
+                }
+
+                //If frame hasn't been flooded, send ack back, duplicates too since the first ACK may have been lost
+                if (addressedHere && ack != 4 && seq >= 0) {
+                    Log.debug("Sending ACK");
+                    sendAck(frame.src(), 3, seq, frame.flowSeq());
+                }
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Closes the output file and the connection once the simulation is over
+     */
+    private void finish() {
+        finished = true;
+        Log.info("{}: Program finished", name);
+        try {
+            writer.close();
+        } catch (IOException e) {
+            Log.error("{}: Error closing output file", name);
+            e.printStackTrace();
+        }
+        channel.close();
+        //Also stops the selector thread of a node on the NIO transport
+        transport.closeServer();
+    }
+
+    /**
+     * Transmits data from input file to socket, keeping up to a window of frames in flight.
+     * Frames are retransmitted when their timer runs out or a CRC error ACK arrives.
+     * @throws IOException if there is a stream write or file read error.
+     */
+    public void transmit() throws IOException {
+        if (load != null) {
+            transmitLoad();
+            return;
+        }
+        if (MODE == Mode.REPLAY) {
+            transmitReplay();
+            return;
+        }
+        LineReader fileReader = new LineReader("node" + this.casID + "_" + this.nodeID + ".txt");
+        ArrayList<FrameBuffer> due = new ArrayList<>();
+        int src = FrameView.address(this.casID, this.nodeID);
+
+        Threads.delay(2000);
+
+        while (fileReader.hasNextLine() || !window.isEmpty()) {
+            //Fill the window with new frames, encoded from the raw line straight into a pooled buffer
+            while (fileReader.hasNextLine() && !window.isFull()) {
+                CharSequence line = fileReader.nextLine();
+                if (FrameView.messageLength(line) > FrameView.V2_MAX_DATA_LENGTH) {
+                    Log.warn("{}: Skipping message of {} bytes, longer than a frame holds", name, FrameView.messageLength(line));
+                    continue;
+                }
+                int flowSeq = window.nextFlowSeq(FrameView.destination(line));
+                FrameBuffer frame = FrameBufferPool.shared().acquire();
+                FrameView.encode(frame.array(), 0, src, 111, window.nextSeq(), flowSeq, line);
+                if (Log.DEBUG) Log.debug("{}: Sending message: {}", name, line.toString());
+                //Recorded before sending so an early ACK finds the frame in flight, the window keeps its own reference
+                window.sent(frame.retain());
+                send(frame);
+            }
+
+            //Retransmit frames whose timer ran out
+            retransmit(due);
+
+            //Window is full or the file is done: sleep until an ACK arrives or a timer runs out
+            window.awaitProgress();
+        }
+        fileReader.close();
+
+        sendEnd();
+    }
+
+    /**
+     * Sends the frames of the node's compiled trace (nodeX_Y.trace, see TraceCompiler) the way transmit sends
+     * the lines of its input file, but without encoding anything: trace frames already carry the sequence numbers
+     * the window hands out. Timed traces are sent on their schedule, as far as the window allows.
+     * @throws IOException if there is a stream write or trace read error, or the trace belongs to another node.
+     */
+    private void transmitReplay() throws IOException {
+        String path = "node" + this.casID + "_" + this.nodeID + ".trace";
+        TraceReader trace = new TraceReader(path, FrameBufferPool.shared());
+        ArrayList<FrameBuffer> due = new ArrayList<>();
+        int frames = 0;
+        try {
+            if (trace.getSource() != FrameView.address(this.casID, this.nodeID)) {
+                throw new IOException(path + " was compiled for node " + FrameView.armOf(trace.getSource()) + "_" + FrameView.nodeOf(trace.getSource()));
+            }
+
+            Threads.delay(2000);
+
+            long start = System.nanoTime();
+            long next = start;
+            FrameBuffer frame = trace.readFrame();
+            while (frame != null || !window.isEmpty()) {
+                while (frame != null && !window.isFull()) {
+                    int seq = frame.seq();
+                    if (seq != window.nextSeq()) {
+                        frame.release();
+                        throw new IOException(path + ": Frame " + frames + " has sequence number " + seq + ", expected " + window.nextSeq());
+                    }
+                    if (trace.isTimed()) {
+                        next += trace.getGapNanos();
+                        Threads.sleepUntil(next);
+                    }
+                    //Recorded before sending so an early ACK finds the frame in flight, the window keeps its own reference
+                    window.sent(frame.retain());
+                    send(frame);
+                    frames++;
+                    frame = trace.readFrame();
+                }
+
+                retransmit(due);
+
+                //Window is full or the trace is done: sleep until an ACK arrives or a timer runs out
+                window.awaitProgress();
+            }
+            Log.info("{}: Replayed {} frames in {} ms", name, frames, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            trace.close();
+        }
+
+        sendEnd();
+    }
+
+    /**
+     * Sends frames as described by the load profile until its duration is over. Closed loop senders then
+     * wait for their remaining frames to be acknowledged, open loop senders don't keep frames at all.
+     * Every frame carries the time it was due to be sent, so a sender falling behind its schedule
+     * shows up as latency rather than hiding it.
+     * @throws IOException if there is a stream write error.
+     */
+    private void transmitLoad() throws IOException {
+        Random random = new Random(FrameView.address(this.casID, this.nodeID));
+        ArrayList<FrameBuffer> due = new ArrayList<>();
+        LoadReport report = load.getReport();
+        boolean closed = load.getLoop() == LoadProfile.Loop.CLOSED;
+        StringBuilder line = new StringBuilder();
+        int src = FrameView.address(this.casID, this.nodeID);
+        int openSeq = 0;
+
+        long interval = load.getBurstIntervalNanos();
+        //Every node starts at the same time, so the report measures all of them sending together
+        long start = load.awaitStart();
+        long end = start + load.getDurationNanos();
+        //Nodes start their schedules at random points of the interval so bursts of different nodes don't line up
+        long nextBurst = start + (interval > 0 ? (long) (random.nextDouble() * interval) : 0);
+        while (nextBurst < end) {
+            if (interval > 0) Threads.sleepUntil(nextBurst);
+            long stamp = interval > 0 ? nextBurst : System.nanoTime();
+            for (int i = 0; i < load.getBurst(); i++) {
+                //Closed loop senders wait for the window, retransmitting as they go
+                while (closed && window.isFull() && System.nanoTime() < end) {
+                    retransmit(due);
+                    window.awaitProgress();
+                }
+                if (closed && window.isFull()) break;
+
+                int dst = load.destination(this.casID, this.nodeID, random);
+                int payload = load.payloadSize(random);
+                //The line is reused and encoded straight into a pooled buffer, so sending allocates nothing
+                line.setLength(0);
+                line.append(FrameView.armOf(dst)).append('_').append(FrameView.nodeOf(dst)).append(':');
+                int header = line.length();
+                line.append(STAMP).append(stamp).append(' ');
+                while (line.length() - header < payload) line.append('x');
+                //Open loop frames aren't kept, ACKs for them find nothing in flight and are ignored
+                int seq = closed ? window.nextSeq() : openSeq++ % TransmitWindow.SEQUENCE_SPACE;
+                FrameBuffer frame = FrameBufferPool.shared().acquire();
+                FrameView.encode(frame.array(), 0, src, 111, seq, window.nextFlowSeq(dst), line);
+                if (closed) window.sent(frame.retain());
+                report.sent(line.length() - header, stamp);
+                send(frame);
+            }
+            if (closed) retransmit(due);
+            nextBurst = interval > 0 ? nextBurst + interval : System.nanoTime();
+        }
+
+        while (closed && !window.isEmpty()) {
+            retransmit(due);
+            window.awaitProgress();
+        }
+        report.gaveUp(window.getGivenUp());
+        sendEnd();
+    }
+
+    /**
+     * Sends frames whose timer ran out again
+     * @param due Scratch list, left empty
+     * @throws IOException if there is a stream write error.
+     */
+    private void retransmit(ArrayList<FrameBuffer> due) throws IOException {
+        int gaveUp = window.collectDue(due);
+        Metrics.gaveUp(gaveUp);
+        if (gaveUp > 0) {
+            Log.warn("{} Error: Timed out", name);
+        }
+        for (FrameBuffer frame : due) {
+            if (Log.DEBUG) Log.debug("{}: Retransmitting frame {}", name, frame.seq());
+            Metrics.retransmitted();
+            if (load != null) load.getReport().retransmitted();
+            send(frame);
+        }
+        due.clear();
+    }
+
+    /**
+     * Tells the switch this node is done sending
+     * @throws IOException if there is a stream write error.
+     */
+    private void sendEnd() throws IOException {
+        Threads.delay(200);
+        Log.info("{}: Sending end flag", name);
+        Frame closeFrame = new Frame(this.casID, this.nodeID, 123, this.fullSrcID + ":CLOSE");
+        byte[] bytes = Frame.encode(closeFrame);
+        send(bytes);
+    }
+
+    /**
+     * Records the latency of a load frame accepted by this node, parsing the stamp from the message bytes
+     * @param frame Received frame, message "#stamp xxx..."
+     */
+    private void delivered(FrameView frame) {
+        byte[] bytes = frame.array();
+        int i = frame.messageOffset();
+        int end = i + frame.messageLength();
+        if (i >= end || bytes[i++] != STAMP) return;
+        //nanoTime stamps may be negative
+        boolean negative = i < end && bytes[i] == '-';
+        if (negative) i++;
+        int digits = i;
+        long stamp = 0;
+        while (i < end && bytes[i] >= '0' && bytes[i] <= '9') {
+            stamp = stamp * 10 + (bytes[i++] - '0');
+        }
+        if (i == digits || i >= end || bytes[i] != ' ') {
+            Log.warn("{}: Invalid load stamp in frame {}", name, frame.seq());
+            return;
+        }
+        load.getReport().delivered(negative ? -stamp : stamp, this.casID);
+    }
+
+    /**
+     * Sends an ACK for a received frame, encoded straight into a pooled buffer
+     * @param dst Source of the acknowledged frame
+     * @param ack ACK type
+     * @param seq Sequence number of the acknowledged frame
+     * @param flowSeq Flow sequence number of the acknowledged frame
+     */
+    private void sendAck(int dst, int ack, int seq, int flowSeq) {
+        FrameBuffer frame = FrameBufferPool.shared().acquire();
+        FrameView.encodeAck(frame.array(), 0, dst, FrameView.address(this.casID, this.nodeID), ack, seq, flowSeq);
+        send(frame);
+    }
+
+    /**
+     * Sends a whole frame to the arm switch. The receive thread sends ACKs on the same channel the transmit
+     * thread sends messages on; channels take writes from several threads without interleaving frames.
+     * @param bytes Encoded frame
+     */
+    private void send(byte[] bytes) {
+        channel.write(FrameBufferPool.shared().copyOf(bytes));
+    }
+
+    /**
+     * Sends a whole pooled frame to the arm switch, see {@link #send(byte[])}
+     * @param frame Encoded frame, its reference is passed on
+     */
+    private void send(FrameBuffer frame) {
+        channel.write(frame);
+    }
+
+}
+
+//FRAME FORMAT: [DST][SRC][CRC][SIZE/ACK][ACK type][data]
+//Data of data frames and their ACKs (ACK types 1-4, 111) starts with [SEQ][FLOW SEQ]
+//Frames with wider addresses or more data use the v2 header, see FrameView
+/*  ACK:
+    00 No response (ReTX)
+    01 CRC Error (ReTX)
+    10 Firewall (No TX)
+    11 Positive ACK
+    100 Frame flooded, no ack necessary
+    101 Firewall rules (only used by switches)
+    111 Normal message - default
+    123 End signal
+ */
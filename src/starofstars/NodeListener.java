@@ -1,23 +1,23 @@
+package starofstars;
+
 import java.io.IOException;
 
 /**
  * <h3>NodeListener class of Star of Stars project</h3>
  * NodeListener is a helper class instantiated by a Node's constructor that
- * creates 2 threads to run that Node's transmit and receive methods
+ * creates a thread to run that Node's transmit method. Frames are received on the thread of the Node's LinkChannel.
  *
  * @author Ethan Coulthurst
  * @author Antonio Arant
  */
 public class NodeListener implements Runnable {
     private final Node node;
-    public enum ListenerType {RECEIVER, TRANSMITTER}
+    public enum ListenerType {TRANSMITTER}
     private final ListenerType type;
 
     /**
      * Create a new listener bound to a specific node.
-     * The type field determines if this thread will run
-     * the node's transmit or receive method.
-     * @param type Enum: RECEIVER or TRANSMITTER
+     * @param type Enum: TRANSMITTER
      * @param node Reference to this listener's Node object
      */
     public NodeListener(ListenerType type, Node node) {
@@ -26,12 +26,11 @@ public class NodeListener implements Runnable {
     }
 
     /**
-     * Calls Node's receive or transmit method specified on listener creation
+     * Calls Node's transmit method
      */
     public void run() {
         try {
-            if (this.type == ListenerType.RECEIVER) this.node.receive();
-            else this.node.transmit();
+            this.node.transmit();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,67 @@
+package starofstars;
+
+import java.io.IOException;
+
+/**
+ * <h3>OutputSink interface of Star of Stars project</h3>
+ * An OutputSink is where a node writes the messages it receives. Sinks trade durability for throughput
+ * differently, selected with sos.node.output:
+ * <ul>
+ *     <li>BUFFERED collects lines in memory and writes them in group commits, see GroupCommit</li>
+ *     <li>MAPPED appends into a memory-mapped file without system calls, see MappedSink for what survives a crash</li>
+ *     <li>DISCARD only counts lines, for benchmarks that shouldn't measure the disk</li>
+ * </ul>
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public interface OutputSink {
+    enum Kind {
+        BUFFERED, MAPPED, DISCARD;
+
+        /**
+         * @return Sink kind selected by sos.node.output, BUFFERED by default
+         */
+        public static Kind configured() {
+            return Config.getEnum("node.output", BUFFERED);
+        }
+
+        /**
+         * Opens a sink of this kind, replacing the file if it exists
+         * @param path Output file path
+         * @return New sink
+         * @throws IOException if the file can't be created
+         */
+        public OutputSink open(String path) throws IOException {
+            switch (this) {
+                case MAPPED:
+                    return new MappedSink(path);
+                case DISCARD:
+                    return new DiscardSink();
+                default:
+                    return new BufferedSink(path);
+            }
+        }
+    }
+
+    /**
+     * Appends a line, one ISO-8859-1 byte per character like frames carry them (see FrameView.latin1).
+     * May be called by one thread at a time, while GroupCommit flushes from another.
+     * @param line Line without its line break, only read during the call
+     * @throws IOException if there is a file write error
+     */
+    void write(CharSequence line) throws IOException;
+
+    /**
+     * Makes everything written so far reach the file, and the disk if sos.node.fsync is set
+     * @throws IOException if there is a file write error
+     */
+    void flush() throws IOException;
+
+    /**
+     * Flushes and closes the file
+     * @throws IOException if there is a file write error
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,58 @@
+package starofstars;
+
+import java.util.HashMap;
+
+/**
+ * <h3>ReceiveWindow class of Star of Stars project</h3>
+ * ReceiveWindow filters out retransmitted duplicates of frames a node already received.
+ * Senders number the frames they send to each destination (the flow sequence number), so for every source
+ * it remembers which of the last TransmitWindow.MAX_SIZE flow sequence numbers it has seen.
+ * Sources get their state when their first frame arrives, since addresses are too wide to index an array.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class ReceiveWindow {
+    private static final int SPACE = TransmitWindow.SEQUENCE_SPACE;
+
+    private final HashMap<Integer, Flow> flows = new HashMap<>();
+
+    /**
+     * Records a received frame
+     * @param src Source address
+     * @param flowSeq Flow sequence number of the frame
+     * @return true if the frame is new, false if it is a duplicate
+     */
+    public boolean accept(int src, int flowSeq) {
+        Flow flow = flows.get(src);
+        if (flow == null) {
+            flow = new Flow();
+            flow.highest = flowSeq;
+            flows.put(src, flow);
+        }
+
+        long[] bits = flow.seen;
+        int ahead = (flowSeq - flow.highest + SPACE) % SPACE;
+        if (ahead > 0 && ahead <= TransmitWindow.MAX_SIZE) {
+            //Newer than anything seen so far: numbers between are reused from one wrap ago, forget them
+            for (int s = (flow.highest + 1) % SPACE; s != (flowSeq + 1) % SPACE; s = (s + 1) % SPACE) {
+                bits[s >> 6] &= ~(1L << s);
+            }
+            flow.highest = flowSeq;
+        }
+
+        long mask = 1L << flowSeq;
+        if ((bits[flowSeq >> 6] & mask) != 0) return false;
+        bits[flowSeq >> 6] |= mask;
+        return true;
+    }
+
+    /**
+     * Seen flow sequence numbers of one source
+     */
+    private static class Flow {
+        final long[] seen = new long[SPACE / 64];
+        int highest;
+    }
+}
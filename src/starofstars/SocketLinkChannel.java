@@ -0,0 +1,156 @@
+package starofstars;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h3>SocketLinkChannel class of Star of Stars project</h3>
+ * SocketLinkChannel is the blocking LinkChannel. It owns one thread that reads frames
+ * from its socket with a FrameReader, and one writer thread that drains an egress queue.
+ * The writer copies as many queued frames as fit into one buffer before flushing it,
+ * so a burst of frames goes out in a single socket write instead of one write per frame.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class SocketLinkChannel implements LinkChannel, Runnable {
+    public static final int FLUSH_BYTES = Math.max(FrameView.MAX_FRAME_LENGTH, Config.getInt("link.flushBytes", 16 * 1024));
+    public static final long LINGER_NANOS = TimeUnit.MICROSECONDS.toNanos(Config.getLong("link.lingerMicros", 0));
+
+    private final Socket socket;
+    private FrameReader in;
+    private OutputStream out;
+    private Receiver receiver;
+    private LatencyHistogram egressTimes;
+    private final FrameQueue egress = new FrameQueue(FrameQueue.DEFAULT_CAPACITY, FrameQueue.BackpressurePolicy.BLOCK);
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new channel on top of a connected socket
+     * @param socket Connected socket
+     */
+    public SocketLinkChannel(Socket socket) {
+        this.socket = socket;
+        try {
+            this.in = new FrameReader(socket.getInputStream(), FrameBufferPool.shared());
+            this.out = new BufferedOutputStream(socket.getOutputStream(), FLUSH_BYTES);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Starts the listener and writer threads
+     * @param receiver Frame callback
+     */
+    public void start(Receiver receiver) {
+        this.receiver = receiver;
+        this.egressTimes = receiver.egressTimes();
+        Threads.start(this);
+        Threads.start(this::drain);
+    }
+
+    /**
+     * Message listener loop
+     */
+    public void run() {
+        try {
+            while (!closed) {
+                FrameBuffer frame = in.readFrame();
+                if (frame == null) break;
+                receiver.receive(frame);
+            }
+
+            this.socket.close();
+        } catch (IOException e) {
+            //Socket is closed by the switch on shutdown, which interrupts the blocking read
+            if (!closed) e.printStackTrace();
+        }
+        //Nothing can be sent on a dead connection, let the writer finish
+        closed = true;
+        egress.wake();
+        receiver.closed();
+    }
+
+    /**
+     * Queues given frame for the writer thread. Blocks while the egress queue is full.
+     * @param frame Frame to send
+     */
+    public void write(FrameBuffer frame) {
+        if (closed) {
+            frame.release();
+            return;
+        }
+        egress.offer(frame);
+    }
+
+    /**
+     * Writer loop. Waits for a frame, then keeps adding queued frames to the same buffer until the queue
+     * is empty (after lingering up to sos.link.lingerMicros for more) or the buffer holds sos.link.flushBytes.
+     * On close, whatever is still queued is written before the socket is closed.
+     */
+    private void drain() {
+        egress.setConsumer(Thread.currentThread());
+        int buffered = 0;
+        while (true) {
+            FrameBuffer frame;
+            if (buffered > 0) frame = egress.poll(LINGER_NANOS);
+            else frame = closed ? egress.poll() : egress.take();
+            if (frame == null) {
+                if (buffered > 0) {
+                    flush();
+                    buffered = 0;
+                } else if (closed) {
+                    break;
+                }
+                continue;
+            }
+
+            int length = frame.length();
+            if (buffered + length > FLUSH_BYTES) {
+                flush();
+                buffered = 0;
+            }
+            try {
+                this.out.write(frame.array(), 0, length);
+                buffered += length;
+                //Measured from the frame's egress queue timestamp
+                if (egressTimes != null) egressTimes.record(System.nanoTime() - frame.timestamp());
+            } catch (IOException e) {
+                if (!closed) e.printStackTrace();
+            } finally {
+                frame.release();
+            }
+        }
+
+        try {
+            this.socket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Pushes buffered frames to the socket
+     */
+    private void flush() {
+        try {
+            this.out.flush();
+        } catch (IOException e) {
+            if (!closed) e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops accepting frames. The writer sends what is already queued and then closes the socket,
+     * which also ends the listener loop.
+     */
+    public void close() {
+        closed = true;
+        egress.wake();
+    }
+}
@@ -0,0 +1,91 @@
+package starofstars;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.function.Consumer;
+
+/**
+ * <h3>SocketTransport class of Star of Stars project</h3>
+ * SocketTransport is the blocking LinkTransport: an acceptor thread per listening switch, and a
+ * SocketLinkChannel with its own reader and writer thread for every link.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class SocketTransport implements LinkTransport, Runnable {
+    private final String name;
+    private ServerSocket serverSocket;
+    private Consumer<LinkChannel> acceptor;
+
+    /**
+     * Creates a transport for one switch or node
+     * @param name Owner name used in log output, e.g. "Cas 0"
+     */
+    public SocketTransport(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Listens for incoming connections on given port. The port is bound before returning, so links
+     * created right after the switch can connect. Runs the callback on the acceptor thread.
+     * @param port Port to listen on
+     * @param acceptor Callback for new channels
+     */
+    public void listen(int port, Consumer<LinkChannel> acceptor) {
+        try {
+            this.serverSocket = new ServerSocket(port);
+        } catch (IOException e) {
+            Log.error("{}: Error listening on port {}", name, port);
+            e.printStackTrace();
+            return;
+        }
+        this.acceptor = acceptor;
+        Log.info("{} listening on port {}", name, port);
+        Threads.start(this);
+    }
+
+    /**
+     * Connects to a listening switch. Blocks until connected.
+     * @param host Host name
+     * @param port Port number
+     * @return Channel to the remote switch, or null if the connection failed
+     */
+    public LinkChannel connect(String host, int port) {
+        try {
+            return new SocketLinkChannel(new Socket(host, port));
+        } catch (IOException e) {
+            Log.error("{}: Error connecting to port {}", name, port);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Loops waiting for incoming connections until the server socket is closed
+     */
+    public void run() {
+        try {
+            while (true) {
+                Socket socket = serverSocket.accept();
+                Log.info("{} accepted new client", name);
+                acceptor.accept(new SocketLinkChannel(socket));
+            }
+        } catch (IOException e) {
+            Log.info("{}: Server socket closed.", name);
+        }
+    }
+
+    /**
+     * Closes server socket and interrupts accept() method
+     */
+    public void closeServer() {
+        if (this.serverSocket == null) return;
+        try {
+            this.serverSocket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
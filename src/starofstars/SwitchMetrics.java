@@ -0,0 +1,204 @@
+package starofstars;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h3>SwitchMetrics class of Star of Stars project</h3>
+ * SwitchMetrics counts what one switch does. Counters are LongAdders, which spread concurrent increments
+ * over striped cells, so link and switching threads counting the same event don't contend on one cache line.
+ * Frame counts per port are kept by the port's Port object, queue depths by the switch's FrameQueues.
+ * Every switch registers its metrics with Metrics, which dumps them and exposes them through JMX.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class SwitchMetrics implements SwitchMetricsMBean {
+    private final String name;
+    private final LongAdder unicast = new LongAdder();
+    private final LongAdder flooded = new LongAdder();
+    private final LongAdder firewalled = new LongAdder();
+    private final LongAdder crcDropped = new LongAdder();
+    private final LongAdder acks = new LongAdder();
+    private final LongAdder naks = new LongAdder();
+    private final LongAdder firewalledAcks = new LongAdder();
+    private final List<Port> ports = new CopyOnWriteArrayList<>();
+    private final List<FrameQueue> queues = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates the metrics of one switch and registers them with Metrics
+     * @param name Switch name used in dumps and as JMX name, e.g. "Arm 0"
+     */
+    public SwitchMetrics(String name) {
+        this.name = name;
+        Metrics.register(this);
+    }
+
+    /**
+     * @return Switch name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Adds a port
+     * @param label Initial port label, e.g. "core"
+     * @return Counters of the new port
+     */
+    public Port addPort(String label) {
+        Port port = new Port(label);
+        ports.add(port);
+        return port;
+    }
+
+    /**
+     * Adds an ingress queue whose depth is reported
+     * @param queue Ingress queue
+     */
+    public void addQueue(FrameQueue queue) {
+        queues.add(queue);
+    }
+
+    /**
+     * Counts a frame forwarded to a single port
+     */
+    public void unicast() {
+        unicast.increment();
+    }
+
+    /**
+     * Counts a flooded frame
+     */
+    public void flooded() {
+        flooded.increment();
+    }
+
+    /**
+     * Counts a frame turned back by the firewall
+     */
+    public void firewalled() {
+        firewalled.increment();
+    }
+
+    /**
+     * Counts a frame dropped for a bad CRC
+     */
+    public void crcDropped() {
+        crcDropped.increment();
+    }
+
+    /**
+     * Counts an incoming ACK by its type, other frames aren't counted
+     * @param ack ACK type of an incoming frame
+     */
+    public void ack(int ack) {
+        if (ack == 3) acks.increment();
+        else if (ack == 1) naks.increment();
+        else if (ack == 2) firewalledAcks.increment();
+    }
+
+    public long getFramesIn() {
+        long sum = 0;
+        for (Port port : ports) sum += port.in.sum();
+        return sum;
+    }
+
+    public long getFramesOut() {
+        long sum = 0;
+        for (Port port : ports) sum += port.out.sum();
+        return sum;
+    }
+
+    public long getUnicast() {
+        return unicast.sum();
+    }
+
+    public long getFlooded() {
+        return flooded.sum();
+    }
+
+    public long getFirewalled() {
+        return firewalled.sum();
+    }
+
+    public long getCrcDropped() {
+        return crcDropped.sum();
+    }
+
+    public long getAcks() {
+        return acks.sum();
+    }
+
+    public long getNaks() {
+        return naks.sum();
+    }
+
+    public long getFirewalledAcks() {
+        return firewalledAcks.sum();
+    }
+
+    public int getQueueHighWatermark() {
+        int max = 0;
+        for (FrameQueue queue : queues) max = Math.max(max, queue.getHighWatermark());
+        return max;
+    }
+
+    public long getQueueDropped() {
+        long sum = 0;
+        for (FrameQueue queue : queues) sum += queue.getDropped();
+        return sum;
+    }
+
+    public int getPorts() {
+        return ports.size();
+    }
+
+    public String snapshot() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("  %-10s in %d, out %d, unicast %d, flooded %d, firewalled %d, crc dropped %d, acks %d, naks %d, firewalled acks %d, queue max %d, queue dropped %d%n",
+                name, getFramesIn(), getFramesOut(), getUnicast(), getFlooded(), getFirewalled(), getCrcDropped(),
+                getAcks(), getNaks(), getFirewalledAcks(), getQueueHighWatermark(), getQueueDropped()));
+        for (Port port : ports) {
+            out.append(String.format("    %-10s in %d, out %d%n", port.label, port.in.sum(), port.out.sum()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Frame counters of one port. Frames in are counted by the port's reader, frames out by any switching thread.
+     */
+    public static class Port {
+        private final LongAdder in = new LongAdder();
+        private final LongAdder out = new LongAdder();
+        private volatile String label;
+
+        private Port(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Renames the port, e.g. once the switch learned what is connected to it
+         * @param label New label
+         */
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Counts a frame read from the port
+         */
+        public void in() {
+            in.increment();
+        }
+
+        /**
+         * Counts a frame handed to the port
+         */
+        public void out() {
+            out.increment();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package starofstars;
+
+/**
+ * <h3>SwitchMetricsMBean interface of Star of Stars project</h3>
+ * JMX view of one switch's SwitchMetrics, registered as <code>starofstars:type=Switch,name=...</code>.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public interface SwitchMetricsMBean {
+    /**
+     * @return Frames read from all ports
+     */
+    long getFramesIn();
+
+    /**
+     * @return Frames handed to all ports, a flooded frame counts once per port
+     */
+    long getFramesOut();
+
+    /**
+     * @return Frames forwarded to a single known port
+     */
+    long getUnicast();
+
+    /**
+     * @return Frames flooded to every port
+     */
+    long getFlooded();
+
+    /**
+     * @return Frames turned back by the firewall
+     */
+    long getFirewalled();
+
+    /**
+     * @return Frames dropped on ingress for a bad CRC
+     */
+    long getCrcDropped();
+
+    /**
+     * @return Positive ACKs received
+     */
+    long getAcks();
+
+    /**
+     * @return CRC error ACKs received
+     */
+    long getNaks();
+
+    /**
+     * @return Firewalled ACKs received, turned back by this or another switch's firewall
+     */
+    long getFirewalledAcks();
+
+    /**
+     * @return Most frames ever waiting in one ingress queue of the switch
+     */
+    int getQueueHighWatermark();
+
+    /**
+     * @return Frames dropped by the ingress queues' backpressure policy
+     */
+    long getQueueDropped();
+
+    /**
+     * @return Amount of connected ports
+     */
+    int getPorts();
+
+    /**
+     * @return Every counter of the switch and its ports as text
+     */
+    String snapshot();
+}
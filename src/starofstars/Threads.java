@@ -0,0 +1,118 @@
+package starofstars;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h3>Threads class of Star of Stars project</h3>
+ * Threads runs every switch, link and node task on one shared executor. With <code>sos.threads=virtual</code>
+ * tasks get a virtual thread each, so a JVM can host far more simulated nodes than with one platform thread per task.
+ * Virtual threads need Java 21; older runtimes fall back to platform threads.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public final class Threads {
+    public enum Mode {PLATFORM, VIRTUAL}
+
+    //Pacing spins this long before its deadline, parkNanos usually oversleeps by more
+    private static final long SPIN_NANOS = 50_000;
+
+    private static final Object completionLock = new Object();
+    private static final AtomicInteger activeTasks = new AtomicInteger();
+    private static final ExecutorService executor = createExecutor(Config.getEnum("threads", Mode.PLATFORM));
+
+    private Threads() {
+    }
+
+    /**
+     * Runs a task on its own thread from the shared executor
+     * @param task Long-running task, e.g. a switching or listener loop
+     */
+    public static void start(Runnable task) {
+        activeTasks.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                if (activeTasks.decrementAndGet() == 0) {
+                    synchronized (completionLock) {
+                        completionLock.notifyAll();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Blocks until every started task has finished. Executor threads don't keep the JVM alive,
+     * so Main waits here for the simulation to end.
+     */
+    public static void awaitCompletion() {
+        synchronized (completionLock) {
+            while (activeTasks.get() > 0) {
+                try {
+                    completionLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Halts the calling thread for specified amount of time in millis. Parks instead of sleeping,
+     * which releases the carrier thread when called on a virtual thread.
+     * @param millis Amount of delay time in milliseconds
+     */
+    public static void delay(long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) return;
+        }
+    }
+
+    /**
+     * Halts the calling thread until a precise point in time, e.g. a node's next scheduled send. Parks for all but
+     * the last few microseconds, then spins, so waiting threads don't take the CPU from the ones doing work.
+     * @param deadline Time to resume at, as System.nanoTime()
+     */
+    public static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+            if (Thread.currentThread().isInterrupted()) return;
+        }
+        while (System.nanoTime() < deadline) Thread.onSpinWait();
+    }
+
+    /**
+     * Creates the shared executor for the given mode
+     * @param mode Platform or virtual threads
+     * @return Executor starting one thread per task
+     */
+    private static ExecutorService createExecutor(Mode mode) {
+        if (mode == Mode.VIRTUAL) {
+            try {
+                //Looked up reflectively so the project still builds and runs on Java 17
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                System.out.println("Threads: Virtual threads need Java 21, using platform threads");
+            }
+        }
+
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package starofstars;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <h3>TraceCompiler class of Star of Stars project</h3>
+ * TraceCompiler turns node input files into binary traces a node started with <code>sos.node.mode=replay</code>
+ * sends as they are, see TraceReader. Every frame is encoded and sealed ahead of time, including its sequence
+ * numbers: the window hands out sequence numbers in order from 0, and flow sequence numbers count the frames
+ * to each destination, so both are known before the run.
+ * Frames use the header chosen by sos.frame.version when the trace is compiled.
+ * <p>
+ * Usage: <code>java -cp starofstars.jar starofstars.TraceCompiler [--gapMicros=n [--poisson]] nodeX_Y.txt...</code>
+ * writes nodeX_Y.trace next to every input file. With a gap, frames are timed that many microseconds apart,
+ * or with exponentially distributed gaps of that mean with --poisson. Without one, replay sends as fast as the window allows.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class TraceCompiler {
+    private static final Pattern NODE_FILE = Pattern.compile("node(\\d+)_(\\d+)\\.txt");
+
+    public static void main(String[] args) {
+        long gapMicros = -1;
+        boolean poisson = false;
+        int compiled = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--gapMicros=")) {
+                gapMicros = Long.parseLong(arg.substring("--gapMicros=".length()));
+                continue;
+            }
+            if (arg.equals("--poisson")) {
+                poisson = true;
+                continue;
+            }
+            Matcher name = NODE_FILE.matcher(new File(arg).getName());
+            if (!name.matches()) {
+                System.out.println("TraceCompiler: Skipping \"" + arg + "\", expected a nodeX_Y.txt file");
+                continue;
+            }
+            int src = FrameView.address(Integer.parseInt(name.group(1)), Integer.parseInt(name.group(2)));
+            String output = arg.substring(0, arg.length() - ".txt".length()) + ".trace";
+            try {
+                int frames = compile(arg, output, src, gapMicros, poisson);
+                System.out.println("TraceCompiler: " + output + ", " + frames + " frames");
+                compiled++;
+            } catch (IOException | NumberFormatException e) {
+                System.out.println("TraceCompiler: Error compiling " + arg);
+                e.printStackTrace();
+            }
+        }
+        if (compiled == 0) {
+            System.out.println("Usage: TraceCompiler [--gapMicros=n [--poisson]] nodeX_Y.txt...");
+        }
+    }
+
+    /**
+     * Compiles one input file
+     * @param input Text file of "x_y:message" lines
+     * @param output Trace file to write
+     * @param src Source address of the node that will replay the trace
+     * @param gapMicros Microseconds between frames, or -1 for an untimed trace
+     * @param poisson true for exponentially distributed gaps with a mean of gapMicros
+     * @return Amount of frames written
+     * @throws IOException if a file can't be read or written
+     */
+    public static int compile(String input, String output, int src, long gapMicros, boolean poisson) throws IOException {
+        boolean timed = gapMicros >= 0;
+        Random random = new Random(src);
+        HashMap<Integer, Integer> flows = new HashMap<>();
+        byte[] frame = new byte[FrameView.MAX_FRAME_LENGTH];
+        int frames = 0;
+
+        try (LineReader lines = new LineReader(input);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output), 64 * 1024))) {
+            out.writeInt(TraceReader.MAGIC);
+            out.writeByte(TraceReader.VERSION);
+            out.writeByte(timed ? TraceReader.FLAG_TIMED : 0);
+            out.writeInt(src);
+
+            while (lines.hasNextLine()) {
+                CharSequence line = lines.nextLine();
+                if (FrameView.messageLength(line) > FrameView.V2_MAX_DATA_LENGTH) {
+                    System.out.println("TraceCompiler: " + input + ": Skipping message of " + FrameView.messageLength(line)
+                            + " bytes, frames hold at most " + FrameView.V2_MAX_DATA_LENGTH);
+                    continue;
+                }
+                int dst = FrameView.destination(line);
+                int flowSeq = flows.getOrDefault(dst, 0);
+                flows.put(dst, (flowSeq + 1) % TransmitWindow.SEQUENCE_SPACE);
+                int length = FrameView.encode(frame, 0, src, 111, frames % TransmitWindow.SEQUENCE_SPACE, flowSeq, line);
+                if (timed) {
+                    double gap = poisson ? -Math.log(1 - random.nextDouble()) * gapMicros : gapMicros;
+                    out.writeInt((int) (long) Math.min(gap, 0xFFFFFFFFL)); //Unsigned
+                }
+                out.write(frame, 0, length);
+                frames++;
+            }
+        }
+        return frames;
+    }
+}
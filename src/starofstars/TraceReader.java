@@ -0,0 +1,108 @@
+package starofstars;
+
+import java.io.*;
+
+/**
+ * <h3>TraceReader class of Star of Stars project</h3>
+ * TraceReader streams a binary trace written by TraceCompiler back into pooled frames, for nodes started with
+ * <code>sos.node.mode=replay</code>. Trace frames are already encoded and sealed, so replaying one is a
+ * buffered read, not a parse.
+ * <p>
+ * A trace starts with a 10 byte header: the magic number "SOST", the format version, flags and the source
+ * address of every frame. Then come the frames, back to back in wire format. If the timed flag is set,
+ * each frame is preceded by the microseconds to wait after the previous one (4 bytes).
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class TraceReader implements Closeable {
+    public static final int MAGIC = 0x534F5354; //"SOST"
+    public static final int VERSION = 1;
+    public static final int FLAG_TIMED = 1;
+
+    private final DataInputStream in;
+    private final FrameBufferPool pool;
+    private final boolean timed;
+    private final int source;
+    private long gapNanos = 0;
+
+    /**
+     * Opens a trace and reads its header
+     * @param path Trace file path
+     * @param pool Pool frames are read into
+     * @throws IOException if the file can't be read or isn't a trace of this version
+     */
+    public TraceReader(String path, FrameBufferPool pool) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 64 * 1024));
+        this.pool = pool;
+        try {
+            if (in.readInt() != MAGIC) throw new IOException(path + " is not a frame trace");
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new IOException(path + " has trace version " + version + ", expected " + VERSION);
+            this.timed = (in.readUnsignedByte() & FLAG_TIMED) != 0;
+            this.source = in.readInt();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next frame
+     * @return Pooled frame owned by the caller, or null at the end of the trace
+     * @throws IOException if the trace ends mid-frame or can't be read
+     */
+    public FrameBuffer readFrame() throws IOException {
+        if (timed) {
+            //First byte read on its own, the end of the trace is only expected here
+            int high = in.read();
+            if (high < 0) return null;
+            long micros = (long) high << 24 | in.readUnsignedByte() << 16 | in.readUnsignedShort();
+            gapNanos = micros * 1000;
+        }
+        int first = in.read();
+        if (first < 0) {
+            if (timed) throw new EOFException("Trace ends after a timestamp");
+            return null;
+        }
+
+        FrameBuffer frame = pool.acquire();
+        try {
+            byte[] bytes = frame.array();
+            bytes[0] = (byte) first;
+            in.readFully(bytes, 1, FrameView.headerLength(first) - 1);
+            if (frame.size() > FrameView.V2_MAX_DATA_LENGTH) throw new IOException("Frame too long: " + frame.size() + " bytes");
+            in.readFully(bytes, frame.dataOffset(), frame.size());
+            return frame;
+        } catch (IOException e) {
+            frame.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if frames carry the time to wait before sending them
+     */
+    public boolean isTimed() {
+        return timed;
+    }
+
+    /**
+     * @return Nanoseconds to wait between the previous frame and the one last read, 0 if the trace isn't timed
+     */
+    public long getGapNanos() {
+        return gapNanos;
+    }
+
+    /**
+     * @return Source address the trace was compiled for
+     */
+    public int getSource() {
+        return source;
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+}
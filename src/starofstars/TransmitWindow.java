@@ -0,0 +1,199 @@
+package starofstars;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h3>TransmitWindow class of Star of Stars project</h3>
+ * TransmitWindow tracks the frames a node has sent but not yet had acknowledged (selective repeat).
+ * Every data frame gets a one byte sequence number, and up to sos.node.window frames may be in flight at once.
+ * Each frame has its own retransmission timer: it is sent again when no ACK arrives within
+ * sos.node.timeoutMillis, or right away on a CRC error ACK, and given up after sos.node.maxRetries attempts.
+ * The transmitting thread parks in {@link #awaitProgress()} and is unparked as soon as the receiving thread
+ * hands an ACK to the window, or when the earliest timer runs out.
+ * <p>
+ * Frames also carry a flow sequence number counting the frames sent to their destination,
+ * which lets the receiver drop duplicates, see ReceiveWindow.
+ * <p>
+ * Sent frames are kept as the pooled FrameBuffers that went out, the window holding one reference to
+ * each until the frame is acknowledged or given up.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public class TransmitWindow {
+    public static final int SEQUENCE_SPACE = 256;
+    //Selective repeat needs the window to be at most half the sequence space
+    public static final int MAX_SIZE = SEQUENCE_SPACE / 2 - 1;
+
+    private final int size;
+    private final long timeoutNanos;
+    private final int maxAttempts;
+    private final FrameBuffer[] frames = new FrameBuffer[SEQUENCE_SPACE];
+    private final long[] sentAt = new long[SEQUENCE_SPACE];
+    private final int[] attempts = new int[SEQUENCE_SPACE];
+    private final HashMap<Integer, Integer> flows = new HashMap<>(); //Next flow sequence number per destination address
+    private int base = 0;
+    private int next = 0;
+    private int given = 0;
+    private volatile Thread waiter;
+
+    /**
+     * Creates a window configured by sos.node.window, sos.node.timeoutMillis and sos.node.maxRetries
+     */
+    public TransmitWindow() {
+        this(Config.getInt("node.window", 8), Config.getLong("node.timeoutMillis", 1000), Config.getInt("node.maxRetries", 5));
+    }
+
+    /**
+     * Creates a window
+     * @param size Maximum frames in flight, clamped to 1..MAX_SIZE
+     * @param timeoutMillis Time to wait for an ACK before retransmitting
+     * @param maxRetries Retransmissions before a frame is given up
+     */
+    public TransmitWindow(int size, long timeoutMillis, int maxRetries) {
+        this.size = Math.max(1, Math.min(size, MAX_SIZE));
+        this.timeoutNanos = timeoutMillis * 1_000_000L;
+        this.maxAttempts = 1 + Math.max(0, maxRetries);
+    }
+
+    /**
+     * @return true if no more frames may be sent until an ACK arrives
+     */
+    public synchronized boolean isFull() {
+        return inFlight() >= size;
+    }
+
+    /**
+     * @return true if every sent frame has been acknowledged or given up
+     */
+    public synchronized boolean isEmpty() {
+        return base == next;
+    }
+
+    /**
+     * @return Sequence number the next frame will get
+     */
+    public synchronized int nextSeq() {
+        return next;
+    }
+
+    /**
+     * Takes the next flow sequence number towards a destination
+     * @param dst Destination address
+     * @return Flow sequence number
+     */
+    public synchronized int nextFlowSeq(int dst) {
+        int flow = flows.getOrDefault(dst, 0);
+        flows.put(dst, (flow + 1) % SEQUENCE_SPACE);
+        return flow;
+    }
+
+    /**
+     * Records a newly sent frame and starts its timer. The frame must carry {@link #nextSeq()}.
+     * @param frame Sent frame, kept for retransmission. The window takes over one reference, so callers
+     *              retain() before also writing it to the link
+     */
+    public synchronized void sent(FrameBuffer frame) {
+        frames[next] = frame;
+        attempts[next] = 1;
+        sentAt[next] = System.nanoTime();
+        next = (next + 1) % SEQUENCE_SPACE;
+    }
+
+    /**
+     * Handles an ACK for given sequence number. Positive, flooded and firewalled ACKs complete the frame,
+     * CRC error ACKs make it due for retransmission right away. ACKs for frames no longer in flight are ignored.
+     * @param seq Acknowledged sequence number
+     * @param ack ACK type
+     * @return true if the ACK completed a frame
+     */
+    public synchronized boolean acknowledge(int seq, int ack) {
+        if (!isInFlight(seq)) return false;
+        if (ack == 1) {
+            sentAt[seq] = System.nanoTime() - timeoutNanos;
+            wake();
+            return false;
+        }
+        complete(seq);
+        wake();
+        return true;
+    }
+
+    /**
+     * Parks the calling thread until an ACK changes the window or the earliest retransmission timer runs out.
+     * Returns right away if nothing is in flight. May also return early, so callers re-check the window.
+     */
+    public void awaitProgress() {
+        long nanos;
+        synchronized (this) {
+            //Registered before checking, so an ACK arriving before the park leaves its unpark permit behind
+            waiter = Thread.currentThread();
+            if (base == next) return;
+            long now = System.nanoTime();
+            nanos = Long.MAX_VALUE;
+            for (int seq = base; seq != next; seq = (seq + 1) % SEQUENCE_SPACE) {
+                if (frames[seq] != null) nanos = Math.min(nanos, sentAt[seq] + timeoutNanos - now);
+            }
+        }
+        if (nanos > 0) LockSupport.parkNanos(this, nanos);
+    }
+
+    /**
+     * Collects frames whose timer expired and restarts their timers. Frames that used up their
+     * attempts are given up instead.
+     * @param due List the frames to retransmit are added to, each retained for the caller to send
+     *            (the window may release its own reference as soon as an ACK arrives)
+     * @return Amount of frames given up
+     */
+    public synchronized int collectDue(List<FrameBuffer> due) {
+        long now = System.nanoTime();
+        int gaveUp = 0;
+        for (int seq = base; seq != next; seq = (seq + 1) % SEQUENCE_SPACE) {
+            if (frames[seq] == null || now - sentAt[seq] < timeoutNanos) continue;
+            if (attempts[seq] >= maxAttempts) {
+                complete(seq);
+                gaveUp++;
+            } else {
+                attempts[seq]++;
+                sentAt[seq] = now;
+                due.add(frames[seq].retain());
+            }
+        }
+        given += gaveUp;
+        return gaveUp;
+    }
+
+    /**
+     * @return Amount of frames given up so far
+     */
+    public synchronized int getGivenUp() {
+        return given;
+    }
+
+    private void wake() {
+        Thread thread = waiter;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    private int inFlight() {
+        return (next - base + SEQUENCE_SPACE) % SEQUENCE_SPACE;
+    }
+
+    private boolean isInFlight(int seq) {
+        return (seq - base + SEQUENCE_SPACE) % SEQUENCE_SPACE < inFlight() && frames[seq] != null;
+    }
+
+    /**
+     * Releases a finished frame and slides the base past every finished frame at the front of the window
+     */
+    private void complete(int seq) {
+        frames[seq].release();
+        frames[seq] = null;
+        while (base != next && frames[base] == null) {
+            base = (base + 1) % SEQUENCE_SPACE;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package starofstars;
+
+/**
+ * <h3>Transport enum of Star of Stars project</h3>
+ * Selects how switches do their network I/O. SOCKET uses an acceptor thread plus one blocking
+ * thread per link, NIO runs all links of a switch on a single selector thread, and MEMORY links
+ * switches and nodes through in-memory rings without any sockets, see MemoryTransport.
+ * Set with <code>-Dsos.transport=nio</code> or the <code>--transport=nio</code> program argument.
+ *
+ * @author Ethan Coulthurst
+ * @author Antonio Arant
+ * @version 1
+ */
+public enum Transport {
+    SOCKET, NIO, MEMORY;
+
+    /**
+     * Gets the transport selected at startup
+     * @return Configured transport, SOCKET by default
+     */
+    public static Transport configured() {
+        return Config.getEnum("transport", SOCKET);
+    }
+
+    /**
+     * Creates the LinkTransport for one switch
+     * @param name Owner name used in log output, e.g. "Cas 0"
+     * @return New transport
+     */
+    public LinkTransport open(String name) {
+        switch (this) {
+            case NIO:
+                return new NioTransport(name);
+            case MEMORY:
+                return new MemoryTransport(name);
+            default:
+                return new SocketTransport(name);
+        }
+    }
+}